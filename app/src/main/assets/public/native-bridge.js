@@ -31,9 +31,30 @@
   // create the postToNative() fn if needed
   if (win.androidBridge) {
     // android platform
-    postToNative = function androidBridge(data) {
-      win.androidBridge.postMessage(JSON.stringify(data));
-    };
+    if (typeof win.androidBridge.postMessages === 'function') {
+      // calls made in the same tick cross into native together
+      var pendingMessages = [];
+      var flushMessages = function flushMessages() {
+        var messages = pendingMessages;
+        pendingMessages = [];
+        if (messages.length === 1) {
+          win.androidBridge.postMessage(messages[0]);
+        } else {
+          win.androidBridge.postMessages('[' + messages.join(',') + ']');
+        }
+      };
+      postToNative = function androidBridge(data) {
+        if (pendingMessages.length === 0) {
+          Promise.resolve().then(flushMessages);
+        }
+        // serialize now, so later changes to the options don't leak into the call
+        pendingMessages.push(JSON.stringify(data));
+      };
+    } else {
+      postToNative = function androidBridge(data) {
+        win.androidBridge.postMessage(JSON.stringify(data));
+      };
+    }
     capacitor.isNative = true;
     capacitor.isAndroid = true;
     capacitor.platform = 'android';
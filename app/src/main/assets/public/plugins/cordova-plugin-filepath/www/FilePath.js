@@ -8,9 +8,30 @@ module.exports = {
      * @param {String} path  Content URL/path.
      * @param successCallback  invoked with a native filesystem path string
      * @param errorCallback  invoked if error occurs
+     * @param {Object} [options]
+     *   copy: false to get content:// URLs back instead of copying them to the cache.
+     *   onProgress: invoked with (copied, total) while content is copied, total is -1 when
+     *   unknown. successCallback is still only invoked once, with the path.
      */
-    resolveNativePath: function(path, successCallback, errorCallback) {
-        exec(successCallback, errorCallback, "FilePath", "resolveNativePath", [path]);
+    resolveNativePath: function(path, successCallback, errorCallback, options) {
+        options = options || {};
+        var onProgress = typeof options.onProgress === 'function' ? options.onProgress : null;
+        var nativeOptions = {
+            copy: options.copy !== false,
+            progress: onProgress !== null
+        };
+        var win = function(result) {
+            if (result && result.type === 'progress') {
+                if (onProgress) {
+                    onProgress(result.copied, result.total);
+                }
+                return;
+            }
+            if (successCallback) {
+                successCallback(result);
+            }
+        };
+        exec(win, errorCallback, "FilePath", "resolveNativePath", [path, nativeOptions]);
     }
 };
 });
\ No newline at end of file
@@ -23,6 +23,25 @@ cordova.define("cordova-plugin-file.DirectoryReader", function(require, exports,
 var exec = require('cordova/exec');
 var FileError = require('./FileError');
 
+/**
+ * Turns an entry from native code into a FileEntry or DirectoryEntry.
+ */
+function makeEntry (result) {
+    var entry = null;
+    if (result.isDirectory) {
+        entry = new (require('./DirectoryEntry'))();
+    } else if (result.isFile) {
+        entry = new (require('./FileEntry'))();
+    }
+    entry.isDirectory = result.isDirectory;
+    entry.isFile = result.isFile;
+    entry.name = result.name;
+    entry.fullPath = result.fullPath;
+    entry.filesystem = new (require('./FileSystem'))(result.filesystemName);
+    entry.nativeURL = result.nativeURL;
+    return entry;
+}
+
 /**
  * An interface that lists the files and directories in a directory.
  */
@@ -47,19 +66,7 @@ DirectoryReader.prototype.readEntries = function (successCallback, errorCallback
     var win = typeof successCallback !== 'function' ? null : function (result) {
         var retVal = [];
         for (var i = 0; i < result.length; i++) {
-            var entry = null;
-            if (result[i].isDirectory) {
-                entry = new (require('./DirectoryEntry'))();
-            } else if (result[i].isFile) {
-                entry = new (require('./FileEntry'))();
-            }
-            entry.isDirectory = result[i].isDirectory;
-            entry.isFile = result[i].isFile;
-            entry.name = result[i].name;
-            entry.fullPath = result[i].fullPath;
-            entry.filesystem = new (require('./FileSystem'))(result[i].filesystemName);
-            entry.nativeURL = result[i].nativeURL;
-            retVal.push(entry);
+            retVal.push(makeEntry(result[i]));
         }
         reader.hasReadEntries = true;
         successCallback(retVal);
@@ -70,5 +77,32 @@ DirectoryReader.prototype.readEntries = function (successCallback, errorCallback
     exec(win, fail, 'File', 'readEntries', [this.localURL]);
 };
 
+/**
+ * Returns the entries of a directory along with their size, type and lastModifiedDate, in
+ * one call instead of a getMetadata call per entry. Large directories come in several pages.
+ *
+ * @param {Function} successCallback is called once per page with a list of entries and
+ *                   whether that page is the last one
+ * @param {Function} errorCallback is called with a FileError
+ * @param {Number} pageSize how many entries to send per page, 500 by default
+ */
+DirectoryReader.prototype.readEntriesWithMetadata = function (successCallback, errorCallback, pageSize) {
+    var win = typeof successCallback !== 'function' ? null : function (page) {
+        var retVal = [];
+        for (var i = 0; i < page.entries.length; i++) {
+            var entry = makeEntry(page.entries[i]);
+            entry.size = page.entries[i].size;
+            entry.type = page.entries[i].type;
+            entry.lastModifiedDate = new Date(page.entries[i].lastModifiedDate);
+            retVal.push(entry);
+        }
+        successCallback(retVal, page.done);
+    };
+    var fail = typeof errorCallback !== 'function' ? null : function (code) {
+        errorCallback(new FileError(code));
+    };
+    exec(win, fail, 'File', 'readEntriesWithMetadata', [this.localURL, pageSize || null]);
+};
+
 module.exports = DirectoryReader;
 });
\ No newline at end of file
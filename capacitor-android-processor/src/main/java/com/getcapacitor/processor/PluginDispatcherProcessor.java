@@ -0,0 +1,289 @@
+package com.getcapacitor.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates a PluginDispatcher for every @NativePlugin class, so that PluginHandle can index
+ * and call plugin methods through a switch instead of reflection.
+ *
+ * The generated class for <code>com.example.MyPlugin</code> is
+ * <code>com.example.MyPlugin_PluginDispatcher</code>. Plugins whose methods can't be called
+ * directly from their package are skipped, and PluginHandle falls back to reflection for them.
+ * Checked exceptions thrown by a plugin method reject its call.
+ */
+public class PluginDispatcherProcessor extends AbstractProcessor {
+  private static final String NATIVE_PLUGIN = "com.getcapacitor.NativePlugin";
+  private static final String PLUGIN_METHOD = "com.getcapacitor.PluginMethod";
+  private static final String PLUGIN_CALL = "com.getcapacitor.PluginCall";
+  private static final String DISPATCHER_SUFFIX = "_PluginDispatcher";
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton(NATIVE_PLUGIN);
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement nativePlugin = processingEnv.getElementUtils().getTypeElement(NATIVE_PLUGIN);
+    if (nativePlugin == null) {
+      return false;
+    }
+
+    for (Element element : roundEnv.getElementsAnnotatedWith(nativePlugin)) {
+      if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+        continue;
+      }
+      TypeElement plugin = (TypeElement) element;
+      if (!isAccessibleFromPackage(plugin)) {
+        note(plugin, "not accessible from its package, it will be dispatched through reflection");
+        continue;
+      }
+
+      Map<String, String[]> methods = collectMethods(plugin);
+      if (methods == null) {
+        continue;
+      }
+
+      try {
+        writeDispatcher(plugin, methods);
+      } catch (IOException ex) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+            "Unable to generate plugin dispatcher: " + ex.getMessage(), plugin);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Mirror Class.getMethods(): public methods of the class and its superclasses, where a
+   * subclass declaration hides the superclass one. Only @PluginMethod methods are kept.
+   *
+   * @return method names mapped to their return type, lane, ordered flag and whether it declares
+   * checked exceptions, or null if a method can't be called as <code>method(PluginCall)</code>
+   */
+  private Map<String, String[]> collectMethods(TypeElement plugin) {
+    Map<String, String[]> methods = new LinkedHashMap<>();
+    Set<String> seen = new HashSet<>();
+
+    TypeElement type = plugin;
+    while (type != null) {
+      for (Element member : type.getEnclosedElements()) {
+        if (member.getKind() != ElementKind.METHOD) {
+          continue;
+        }
+        ExecutableElement method = (ExecutableElement) member;
+        Set<Modifier> modifiers = method.getModifiers();
+        if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC)) {
+          continue;
+        }
+        String name = method.getSimpleName().toString();
+        if (!seen.add(name + signature(method))) {
+          continue;
+        }
+
+        AnnotationMirror pluginMethod = getAnnotation(method, PLUGIN_METHOD);
+        if (pluginMethod == null || methods.containsKey(name)) {
+          continue;
+        }
+        if (!takesPluginCall(method)) {
+          note(plugin, "@PluginMethod " + name + " doesn't take a single PluginCall, it will be dispatched through reflection");
+          return null;
+        }
+        methods.put(name, new String[] {
+            getValue(pluginMethod, "returnType", "promise"),
+            getValue(pluginMethod, "lane", ""),
+            getValue(pluginMethod, "ordered", "true"),
+            String.valueOf(throwsChecked(method))
+        });
+      }
+      type = getSuperclass(type);
+    }
+    return methods;
+  }
+
+  private void writeDispatcher(TypeElement plugin, Map<String, String[]> methods) throws IOException {
+    PackageElement pkg = processingEnv.getElementUtils().getPackageOf(plugin);
+    String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+    String binaryName = processingEnv.getElementUtils().getBinaryName(plugin).toString();
+    String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+        .replace('$', '_') + DISPATCHER_SUFFIX;
+    String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+    List<String> names = new ArrayList<>(methods.keySet());
+
+    JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, plugin);
+    Writer out = file.openWriter();
+    try {
+      if (!packageName.isEmpty()) {
+        out.write("package " + packageName + ";\n\n");
+      }
+      out.write("/**\n * Generated by " + getClass().getSimpleName() + " for " + plugin.getQualifiedName() + ". Do not edit.\n */\n");
+      out.write("public final class " + simpleName + " implements com.getcapacitor.PluginDispatcher {\n");
+
+      out.write("  private static final String[] METHOD_NAMES = {");
+      for (int i = 0; i < names.size(); i++) {
+        out.write((i > 0 ? ", " : "") + quote(names.get(i)));
+      }
+      out.write("};\n");
+      out.write("  private static final String[] RETURN_TYPES = {");
+      for (int i = 0; i < names.size(); i++) {
+        out.write((i > 0 ? ", " : "") + quote(methods.get(names.get(i))[0]));
+      }
+      out.write("};\n");
+      out.write("  private static final String[] LANES = {");
+      for (int i = 0; i < names.size(); i++) {
+        out.write((i > 0 ? ", " : "") + quote(methods.get(names.get(i))[1]));
+      }
+      out.write("};\n");
+      out.write("  private static final boolean[] ORDERED = {");
+      for (int i = 0; i < names.size(); i++) {
+        out.write((i > 0 ? ", " : "") + methods.get(names.get(i))[2]);
+      }
+      out.write("};\n\n");
+
+      out.write("  @Override\n  public String[] getMethodNames() {\n    return METHOD_NAMES.clone();\n  }\n\n");
+      out.write("  @Override\n  public String[] getReturnTypes() {\n    return RETURN_TYPES.clone();\n  }\n\n");
+      out.write("  @Override\n  public String[] getLanes() {\n    return LANES.clone();\n  }\n\n");
+      out.write("  @Override\n  public boolean[] getOrdered() {\n    return ORDERED.clone();\n  }\n\n");
+
+      out.write("  @Override\n");
+      out.write("  public boolean invoke(com.getcapacitor.Plugin plugin, String methodName, com.getcapacitor.PluginCall call) {\n");
+      out.write("    " + plugin.getQualifiedName() + " target = (" + plugin.getQualifiedName() + ") plugin;\n");
+      out.write("    switch (methodName) {\n");
+      for (String name : names) {
+        out.write("      case " + quote(name) + ":\n");
+        if (Boolean.parseBoolean(methods.get(name)[3])) {
+          out.write("        try {\n");
+          out.write("          target." + name + "(call);\n");
+          out.write("        } catch (RuntimeException ex) {\n");
+          out.write("          throw ex;\n");
+          out.write("        } catch (Exception ex) {\n");
+          out.write("          call.error(ex.toString(), ex);\n");
+          out.write("        }\n");
+        } else {
+          out.write("        target." + name + "(call);\n");
+        }
+        out.write("        return true;\n");
+      }
+      out.write("      default:\n        return false;\n    }\n  }\n}\n");
+    } finally {
+      out.close();
+    }
+  }
+
+  private boolean isAccessibleFromPackage(TypeElement type) {
+    for (Element current = type; current instanceof TypeElement; current = current.getEnclosingElement()) {
+      if (current.getModifiers().contains(Modifier.PRIVATE)) {
+        return false;
+      }
+    }
+    // Inner (non-static) classes can't be instantiated by PluginHandle either
+    return !(type.getEnclosingElement() instanceof TypeElement) || type.getModifiers().contains(Modifier.STATIC);
+  }
+
+  private boolean takesPluginCall(ExecutableElement method) {
+    List<? extends VariableElement> params = method.getParameters();
+    if (params.size() != 1) {
+      return false;
+    }
+    TypeMirror param = processingEnv.getTypeUtils().erasure(params.get(0).asType());
+    TypeElement pluginCall = processingEnv.getElementUtils().getTypeElement(PLUGIN_CALL);
+    return pluginCall != null && processingEnv.getTypeUtils().isSameType(param, pluginCall.asType());
+  }
+
+  /**
+   * Whether the method declares exceptions that aren't RuntimeExceptions or Errors
+   */
+  private boolean throwsChecked(ExecutableElement method) {
+    TypeMirror runtimeException = processingEnv.getElementUtils().getTypeElement("java.lang.RuntimeException").asType();
+    TypeMirror error = processingEnv.getElementUtils().getTypeElement("java.lang.Error").asType();
+    for (TypeMirror thrown : method.getThrownTypes()) {
+      if (!processingEnv.getTypeUtils().isSubtype(thrown, runtimeException)
+          && !processingEnv.getTypeUtils().isSubtype(thrown, error)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private String signature(ExecutableElement method) {
+    StringBuilder sb = new StringBuilder("(");
+    for (VariableElement param : method.getParameters()) {
+      sb.append(processingEnv.getTypeUtils().erasure(param.asType())).append(',');
+    }
+    return sb.append(')').toString();
+  }
+
+  private AnnotationMirror getAnnotation(Element element, String annotationName) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+      if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+        return mirror;
+      }
+    }
+    return null;
+  }
+
+  private String getValue(AnnotationMirror annotation, String name, String defaultValue) {
+    Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+        processingEnv.getElementUtils().getElementValuesWithDefaults(annotation);
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+      if (entry.getKey().getSimpleName().contentEquals(name)) {
+        return String.valueOf(entry.getValue().getValue());
+      }
+    }
+    return defaultValue;
+  }
+
+  private TypeElement getSuperclass(TypeElement type) {
+    TypeMirror superclass = type.getSuperclass();
+    if (superclass.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+    if (element.getQualifiedName().contentEquals("java.lang.Object")) {
+      return null;
+    }
+    return element;
+  }
+
+  private void note(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+        ((TypeElement) element).getQualifiedName() + ": " + message, element);
+  }
+
+  private static String quote(String value) {
+    return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+  }
+}
@@ -5,8 +5,10 @@
 package com.getcapacitor;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
 import android.content.res.AssetManager;
 import android.net.Uri;
+import android.os.ParcelFileDescriptor;
 import android.util.TypedValue;
 
 import java.io.File;
@@ -74,22 +76,47 @@ public class AndroidProtocolHandler {
   }
 
   public InputStream openContentUrl(Uri uri)  throws IOException {
-    Integer port = uri.getPort();
-    String baseUrl = uri.getScheme() + "://" + uri.getHost();
-    if (port != -1) {
-      baseUrl += ":" + port;
-    }
-    String realPath = uri.toString().replace(baseUrl + Bridge.CAPACITOR_CONTENT_START, "content:/");
-
     InputStream stream = null;
     try {
-      stream = context.getContentResolver().openInputStream(Uri.parse(realPath));
+      stream = context.getContentResolver().openInputStream(getContentUri(uri));
     } catch (SecurityException e) {
       Logger.error("Unable to open content URL: " + uri, e);
     }
     return stream;
   }
 
+  /**
+   * Open a seekable descriptor for an asset. Fails for assets that are compressed in the APK.
+   */
+  public AssetFileDescriptor openAssetFd(String path) throws IOException {
+    return context.getAssets().openFd(path);
+  }
+
+  public AssetFileDescriptor openFileFd(String filePath) throws IOException {
+    String realPath = filePath.replace(Bridge.CAPACITOR_FILE_START, "");
+    ParcelFileDescriptor pfd = ParcelFileDescriptor.open(new File(realPath), ParcelFileDescriptor.MODE_READ_ONLY);
+    return new AssetFileDescriptor(pfd, 0, AssetFileDescriptor.UNKNOWN_LENGTH);
+  }
+
+  public AssetFileDescriptor openContentUrlFd(Uri uri) throws IOException {
+    try {
+      return context.getContentResolver().openAssetFileDescriptor(getContentUri(uri), "r");
+    } catch (SecurityException e) {
+      Logger.error("Unable to open content URL: " + uri, e);
+    }
+    return null;
+  }
+
+  private Uri getContentUri(Uri uri) {
+    Integer port = uri.getPort();
+    String baseUrl = uri.getScheme() + "://" + uri.getHost();
+    if (port != -1) {
+      baseUrl += ":" + port;
+    }
+    String realPath = uri.toString().replace(baseUrl + Bridge.CAPACITOR_CONTENT_START, "content:/");
+    return Uri.parse(realPath);
+  }
+
   private static int getValueType(Context context, int fieldId) {
     TypedValue value = new TypedValue();
     context.getResources().getValue(fieldId, value, true);
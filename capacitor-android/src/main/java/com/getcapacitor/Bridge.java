@@ -10,7 +10,6 @@ import android.graphics.Color;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
-import android.os.HandlerThread;
 import android.webkit.ValueCallback;
 import android.webkit.WebSettings;
 import android.webkit.WebView;
@@ -23,6 +22,7 @@ import com.getcapacitor.plugin.Browser;
 import com.getcapacitor.plugin.Camera;
 import com.getcapacitor.plugin.Clipboard;
 import com.getcapacitor.plugin.Device;
+import com.getcapacitor.plugin.FileCrypto;
 import com.getcapacitor.plugin.Filesystem;
 import com.getcapacitor.plugin.Geolocation;
 import com.getcapacitor.plugin.Haptics;
@@ -50,11 +50,14 @@ import org.json.JSONObject;
 import java.io.File;
 import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -110,11 +113,8 @@ public class Bridge {
   // Our MessageHandler for sending and receiving data to the WebView
   private final MessageHandler msgHandler;
 
-  // The ThreadHandler for executing plugin calls
-  private final HandlerThread handlerThread = new HandlerThread("CapacitorPlugins");
-
-  // Our Handler for posting plugin calls. Created from the ThreadHandler
-  private Handler taskHandler = null;
+  // Runs plugin calls on their lanes
+  private final PluginExecutor pluginExecutor = new PluginExecutor();
 
   private final List<Class<? extends Plugin>> initialPlugins;
 
@@ -131,6 +131,10 @@ public class Bridge {
   // Any URI that was passed to the app on start
   private Uri intentUri;
 
+  // The injected JS, built in the background at startup
+  private JSBundle jsBundle;
+  private final Map<String, Long> startupTimings = Collections.synchronizedMap(new LinkedHashMap<String, Long>());
+
 
   /**
    * Create the Bridge with a reference to the main {@link Activity} for the
@@ -148,10 +152,6 @@ public class Bridge {
     this.cordovaInterface = cordovaInterface;
     this.preferences = preferences;
 
-    // Start our plugin execution threads and handlers
-    handlerThread.start();
-    taskHandler = new Handler(handlerThread.getLooper());
-
     Config.load(getActivity());
     this.config = new CapConfig(getActivity().getAssets(), config);
     Logger.init(this.config);
@@ -162,7 +162,9 @@ public class Bridge {
     }
 
     // Initialize web view and message handler for it
+    long phaseStart = System.nanoTime();
     this.initWebView();
+    recordStartupTiming("initWebView", phaseStart);
     this.msgHandler = new MessageHandler(this, webView, pluginManager);
 
     // Grab any intent info that our app was launched with
@@ -171,9 +173,13 @@ public class Bridge {
     this.intentUri = intentData;
 
     // Register our core plugins
+    phaseStart = System.nanoTime();
     this.registerAllPlugins();
+    recordStartupTiming("registerPlugins", phaseStart);
 
+    phaseStart = System.nanoTime();
     this.loadWebView();
+    recordStartupTiming("loadWebView", phaseStart);
   }
 
   private void loadWebView() {
@@ -425,6 +431,7 @@ public class Bridge {
     this.registerPlugin(Device.class);
     this.registerPlugin(LocalNotifications.class);
     this.registerPlugin(Filesystem.class);
+    this.registerPlugin(FileCrypto.class);
     this.registerPlugin(Geolocation.class);
     this.registerPlugin(Haptics.class);
     this.registerPlugin(Keyboard.class);
@@ -537,7 +544,7 @@ public class Bridge {
 
       Logger.verbose("callback: " + call.getCallbackId() +
           ", pluginId: " + plugin.getId() +
-          ", methodName: " + methodName + ", methodData: " + call.getData().toString());
+          ", methodName: " + methodName);
 
       Runnable currentThreadTask = new Runnable() {
         @Override
@@ -557,7 +564,7 @@ public class Bridge {
         }
       };
 
-      taskHandler.post(currentThreadTask);
+      pluginExecutor.execute(plugin.getLane(methodName), plugin.isOrdered(methodName) ? plugin.getId() : null, currentThreadTask);
 
     } catch (Exception ex) {
       Logger.error(Logger.tags("callPluginMethod"), "error : " + ex, null);
@@ -623,7 +630,14 @@ public class Bridge {
   }
 
   public void execute(Runnable runnable) {
-    taskHandler.post(runnable);
+    pluginExecutor.execute(runnable);
+  }
+
+  /**
+   * Queue depth and wait times of the plugin executor lanes, by lane name
+   */
+  public Map<String, PluginExecutor.LaneStats> getPluginExecutorStats() {
+    return pluginExecutor.getStats();
   }
 
   public void executeOnMainThread(Runnable runnable) {
@@ -660,22 +674,29 @@ public class Bridge {
   /**
    * Build the JSInjector that will be used to inject JS into files served to the app,
    * to ensure that Capacitor's JS and the JS for all the plugins is loaded each time.
+   * The JS is read and generated in the background while the WebView starts up.
    */
   private JSInjector getJSInjector() {
-    try {
-      String globalJS = JSExport.getGlobalJS(context, isDevMode());
-      String coreJS = JSExport.getCoreJS(context);
-      String pluginJS = JSExport.getPluginJS(plugins.values());
-      String cordovaJS = JSExport.getCordovaJS(context);
-      String cordovaPluginsJS = JSExport.getCordovaPluginJS(context);
-      String cordovaPluginsFileJS = JSExport.getCordovaPluginsFileJS(context);
-      String localUrlJS = "window.WEBVIEW_SERVER_URL = '" + localUrl + "';";
-
-      return new JSInjector(globalJS, coreJS, pluginJS, cordovaJS, cordovaPluginsJS, cordovaPluginsFileJS, localUrlJS);
-    } catch(JSExportException ex) {
-      Logger.error("Unable to export Capacitor JS. App will not function!", ex);
+    jsBundle = new JSBundle(context, isDevMode(), plugins.values(), localUrl);
+    return new JSInjector(jsBundle);
+  }
+
+  /**
+   * Time spent in each phase of Bridge startup, in milliseconds. The JS bundle phases run in
+   * parallel, and bundleWait is how long the first page had to wait for them.
+   */
+  public Map<String, Long> getStartupTimings() {
+    Map<String, Long> timings = new LinkedHashMap<>(startupTimings);
+    if (jsBundle != null) {
+      timings.putAll(jsBundle.getTimings());
     }
-    return null;
+    return timings;
+  }
+
+  private void recordStartupTiming(String phase, long startNanos) {
+    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    startupTimings.put(phase, millis);
+    Logger.debug(Logger.tags("Startup"), phase + " took " + millis + "ms");
   }
 
   protected void storeDanglingPluginResult(PluginCall call, PluginResult result) {
@@ -863,6 +884,7 @@ public class Bridge {
     for (PluginHandle plugin : plugins.values()) {
       plugin.getInstance().handleOnDestroy();
     }
+    pluginExecutor.shutdown();
   }
 
   public void onBackPressed() {
@@ -30,13 +30,17 @@ import android.content.Context;
 import android.database.Cursor;
 import android.net.Uri;
 import android.os.Environment;
+import android.os.ParcelFileDescriptor;
 import android.provider.DocumentsContract;
 import android.provider.MediaStore;
 import android.provider.OpenableColumns;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 
 /**
  * Common File utilities, such as resolve content URIs and
@@ -45,6 +49,7 @@ import java.io.InputStream;
 public class FileUtils {
 
   private static String CapacitorFileScheme = Bridge.CAPACITOR_FILE_START;
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
 
   public enum Type {
     IMAGE("image");
@@ -185,18 +190,9 @@ public class FileUtils {
     String name = (cursor.getString(nameIndex));
     File file = new File(context.getFilesDir(), name);
     try {
-      InputStream inputStream = context.getContentResolver().openInputStream(uri);
-      FileOutputStream outputStream = new FileOutputStream(file);
-      int read = 0;
-      int maxBufferSize = 1024 * 1024;
-      int bufferSize = Math.min(inputStream.available(), maxBufferSize);
-      final byte[] buffers = new byte[bufferSize];
-      while ((read = inputStream.read(buffers)) != -1) {
-        outputStream.write(buffers, 0, read);
-      }
-      inputStream.close();
-      outputStream.close();
+      copyContent(context, uri, file);
     } catch (Exception e) {
+      file.delete();
       return null;
     } finally {
       if (cursor != null)
@@ -205,6 +201,45 @@ public class FileUtils {
     return file.getPath();
   }
 
+  /**
+   * Copy the content behind a uri to a file. When the provider hands out a regular file the
+   * copy is done by the kernel with transferTo; pipes and other unsized descriptors are
+   * copied through a fixed size buffer.
+   */
+  private static void copyContent(Context context, Uri uri, File file) throws IOException {
+    ParcelFileDescriptor pfd = context.getContentResolver().openFileDescriptor(uri, "r");
+    if (pfd == null) {
+      throw new IOException("Unable to open " + uri);
+    }
+
+    long size = pfd.getStatSize();
+    InputStream in = new ParcelFileDescriptor.AutoCloseInputStream(pfd);
+    FileOutputStream out = new FileOutputStream(file);
+    try {
+      if (size >= 0) {
+        FileChannel src = ((FileInputStream) in).getChannel();
+        FileChannel dst = out.getChannel();
+        long position = 0;
+        while (position < size) {
+          long transferred = src.transferTo(position, size - position, dst);
+          if (transferred <= 0) {
+            break;
+          }
+          position += transferred;
+        }
+      } else {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+          out.write(buffer, 0, read);
+        }
+      }
+    } finally {
+      in.close();
+      out.close();
+    }
+  }
+
 
   /**
    * @param uri The Uri to check.
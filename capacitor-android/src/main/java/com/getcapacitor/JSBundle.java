@@ -0,0 +1,278 @@
+package com.getcapacitor;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+
+import androidx.core.content.pm.PackageInfoCompat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the JS injected into every page on a small startup executor, so that
+ * reading the bundled assets and generating the plugin proxies runs in parallel and off
+ * the thread that creates the Bridge. The pieces are only waited for when the first page
+ * is served.
+ *
+ * The generated plugin JS is persisted in the cache directory, keyed by the app's
+ * version code and the set of registered plugins, and reused on later launches.
+ */
+class JSBundle {
+  private static final String PLUGIN_JS_CACHE_DIR = "capacitor-js";
+
+  private final Context context;
+  private final Map<String, Long> timings = Collections.synchronizedMap(new LinkedHashMap<String, Long>());
+
+  private final Future<String> coreJS;
+  private final Future<String> pluginJS;
+  private final Future<String> cordovaJS;
+  private final Future<String> cordovaPluginsJS;
+  private final Future<String> cordovaPluginsFileJS;
+  private final String globalJS;
+  private final String localUrlJS;
+
+  JSBundle(final Context context, boolean isDebug, Collection<PluginHandle> plugins, String localUrl) {
+    this.context = context;
+    this.globalJS = JSExport.getGlobalJS(context, isDebug);
+    this.localUrlJS = "window.WEBVIEW_SERVER_URL = '" + localUrl + "';";
+
+    final List<PluginHandle> pluginSnapshot = new ArrayList<>(plugins);
+    int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+      private final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable r) {
+        return new Thread(r, "CapacitorStartup-" + count.incrementAndGet());
+      }
+    });
+
+    // Largest first: the cordova plugin walk lists and reads every file under public/plugins
+    cordovaPluginsJS = executor.submit(timed("cordovaPluginsJS", new Callable<String>() {
+      @Override
+      public String call() {
+        return JSExport.getCordovaPluginJS(context);
+      }
+    }));
+    coreJS = executor.submit(timed("coreJS", new Callable<String>() {
+      @Override
+      public String call() throws JSExportException {
+        return JSExport.getCoreJS(context);
+      }
+    }));
+    cordovaJS = executor.submit(timed("cordovaJS", new Callable<String>() {
+      @Override
+      public String call() {
+        return JSExport.getCordovaJS(context);
+      }
+    }));
+    cordovaPluginsFileJS = executor.submit(timed("cordovaPluginsFileJS", new Callable<String>() {
+      @Override
+      public String call() {
+        return JSExport.getCordovaPluginsFileJS(context);
+      }
+    }));
+    pluginJS = executor.submit(timed("pluginJS", new Callable<String>() {
+      @Override
+      public String call() {
+        return getPluginJS(pluginSnapshot);
+      }
+    }));
+
+    // Already submitted tasks still run, the threads exit once they're done
+    executor.shutdown();
+  }
+
+  /**
+   * Wait for every piece of the bundle and join them in injection order
+   */
+  String getScriptString() {
+    long start = System.nanoTime();
+    String script = globalJS + "\n\n" +
+            await(coreJS, "Unable to export Capacitor JS. App will not function!") + "\n\n" +
+            await(pluginJS, "Unable to export plugin JS") + "\n\n" +
+            await(cordovaJS, "Unable to export cordova.js") + "\n\n" +
+            await(cordovaPluginsFileJS, "Unable to export cordova_plugins.js") + "\n\n" +
+            await(cordovaPluginsJS, "Unable to export Cordova plugin JS") + "\n\n" +
+            localUrlJS;
+    record("bundleWait", start);
+    return script;
+  }
+
+  /**
+   * Time spent in each startup phase, in milliseconds
+   */
+  Map<String, Long> getTimings() {
+    synchronized (timings) {
+      return new LinkedHashMap<>(timings);
+    }
+  }
+
+  void record(String phase, long startNanos) {
+    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    timings.put(phase, millis);
+    Logger.debug(Logger.tags("Startup"), phase + " took " + millis + "ms");
+  }
+
+  private <T> Callable<T> timed(final String phase, final Callable<T> task) {
+    return new Callable<T>() {
+      @Override
+      public T call() throws Exception {
+        long start = System.nanoTime();
+        try {
+          return task.call();
+        } finally {
+          record(phase, start);
+        }
+      }
+    };
+  }
+
+  private String await(Future<String> future, String errorMessage) {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return future.get();
+        } catch (InterruptedException ex) {
+          interrupted = true;
+        }
+      }
+    } catch (ExecutionException ex) {
+      Logger.error(errorMessage, ex.getCause());
+      return "";
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private String getPluginJS(List<PluginHandle> plugins) {
+    File cacheFile = getPluginJSCacheFile(plugins);
+    if (cacheFile != null && cacheFile.exists()) {
+      try {
+        return readFile(cacheFile);
+      } catch (IOException ex) {
+        Logger.error("Unable to read cached plugin JS, regenerating", ex);
+      }
+    }
+
+    String js = JSExport.getPluginJS(plugins);
+    if (cacheFile != null) {
+      writeCacheFile(cacheFile, js);
+    }
+    return js;
+  }
+
+  /**
+   * The cache file for the given plugin set in this build of the app, or null if the
+   * version can't be determined. Files left over from other builds are removed.
+   */
+  private File getPluginJSCacheFile(List<PluginHandle> plugins) {
+    PackageInfo packageInfo;
+    try {
+      packageInfo = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+    } catch (Exception ex) {
+      Logger.error("Unable to get package info", ex);
+      return null;
+    }
+
+    StringBuilder pluginKey = new StringBuilder();
+    for (PluginHandle plugin : plugins) {
+      pluginKey.append(plugin.getPluginClass().getName()).append(';');
+    }
+    // lastUpdateTime covers debug builds reinstalled without a version code bump
+    String prefix = "plugins-" + PackageInfoCompat.getLongVersionCode(packageInfo) + "-" + packageInfo.lastUpdateTime + "-";
+    String name = prefix + sha1Hex(pluginKey.toString()) + ".js";
+
+    File dir = new File(context.getCacheDir(), PLUGIN_JS_CACHE_DIR);
+    File[] existing = dir.listFiles();
+    if (existing != null) {
+      for (File file : existing) {
+        if (!file.getName().startsWith(prefix)) {
+          file.delete();
+        }
+      }
+    }
+    return new File(dir, name);
+  }
+
+  private static String sha1Hex(String value) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException ex) {
+      // Every Android release ships SHA-1
+      throw new IllegalStateException(ex);
+    }
+    byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+    StringBuilder hex = new StringBuilder(hash.length * 2);
+    for (byte b : hash) {
+      hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+    }
+    return hex.toString();
+  }
+
+  private void writeCacheFile(File cacheFile, String js) {
+    File dir = cacheFile.getParentFile();
+    File tmp = null;
+    try {
+      if (!dir.exists() && !dir.mkdirs()) {
+        return;
+      }
+      tmp = File.createTempFile(cacheFile.getName(), ".tmp", dir);
+      OutputStream out = new FileOutputStream(tmp);
+      try {
+        out.write(js.getBytes(StandardCharsets.UTF_8));
+      } finally {
+        out.close();
+      }
+      if (!tmp.renameTo(cacheFile)) {
+        tmp.delete();
+      }
+    } catch (IOException ex) {
+      Logger.error("Unable to cache plugin JS", ex);
+      if (tmp != null) {
+        tmp.delete();
+      }
+    }
+  }
+
+  private static String readFile(File file) throws IOException {
+    InputStream in = new FileInputStream(file);
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream((int) file.length());
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return out.toString("UTF-8");
+    } finally {
+      in.close();
+    }
+  }
+}
@@ -3,9 +3,9 @@ package com.getcapacitor;
 import android.content.Context;
 import android.text.TextUtils;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -27,18 +27,18 @@ public class JSExport {
   }
 
   private static String getJS(Context context, String fileName) throws IOException {
+    InputStream stream = context.getAssets().open(fileName);
     try {
-      BufferedReader br = new BufferedReader(new InputStreamReader(context.getAssets().open(fileName)));
-
-      StringBuffer b = new StringBuffer();
-      String line;
-      while ((line = br.readLine()) != null) {
-        b.append(line + "\n");
+      ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(stream.available(), 8192));
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = stream.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
       }
-
-      return b.toString();
-    } catch(IOException ex) {
-      throw ex;
+      out.write('\n');
+      return out.toString("UTF-8");
+    } finally {
+      stream.close();
     }
   }
 
@@ -1,9 +1,9 @@
 package com.getcapacitor;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -12,6 +12,9 @@ import java.nio.charset.StandardCharsets;
  * to the client.
  */
 class JSInjector {
+  private static final byte[] HEAD_OPEN = "<head>".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] HEAD_CLOSE = "</head>".getBytes(StandardCharsets.UTF_8);
+
   private String globalJS;
   private String coreJS;
   private String pluginJS;
@@ -19,6 +22,15 @@ class JSInjector {
   private String cordovaPluginsJS;
   private String cordovaPluginsFileJS;
   private String localUrlJS;
+  private JSBundle bundle;
+
+  private String scriptString;
+  private byte[] scriptAfterHeadOpen;
+  private byte[] scriptBeforeHeadClose;
+
+  // The injected start page, built once and served from memory until the base path changes
+  private String cachedDocumentPath;
+  private byte[] cachedDocument;
 
   public JSInjector(String globalJS, String coreJS, String pluginJS) {
     this(globalJS, coreJS, pluginJS, "" /* cordovaJS */, "" /* cordovaPluginsJS */, "" /* cordovaPluginsFileJS */, "" /* localUrlJS */);
@@ -34,55 +46,254 @@ class JSInjector {
     this.localUrlJS = localUrlJS;
   }
 
+  /**
+   * Inject a bundle that is still being built. The first page served waits for it.
+   * @param bundle
+   */
+  public JSInjector(JSBundle bundle) {
+    this.bundle = bundle;
+  }
+
   /**
    * Generates injectable JS content.
    * This may be used in other forms of injecting that aren't using an InputStream.
    * @return
    */
-  public String getScriptString() {
-    return globalJS + "\n\n" +
-            coreJS + "\n\n" + pluginJS + "\n\n" + cordovaJS + "\n\n" +
-            cordovaPluginsFileJS + "\n\n" + cordovaPluginsJS + "\n\n" +
-            localUrlJS;
+  public synchronized String getScriptString() {
+    if (scriptString == null && bundle != null) {
+      scriptString = bundle.getScriptString();
+    } else if (scriptString == null) {
+      scriptString = globalJS + "\n\n" +
+              coreJS + "\n\n" + pluginJS + "\n\n" + cordovaJS + "\n\n" +
+              cordovaPluginsFileJS + "\n\n" + cordovaPluginsJS + "\n\n" +
+              localUrlJS;
+    }
+    return scriptString;
   }
 
   /**
-   * Given an InputStream from the web server, prepend it with
-   * our JS stream
+   * Given an InputStream from the web server, splice our JS into
+   * its head as the page streams through, without buffering the page
    * @param responseStream
    * @return
    */
   public InputStream getInjectedStream(InputStream responseStream) {
-    String js = "<script type=\"text/javascript\">" + getScriptString() + "</script>";
-    String html = this.readAssetStream(responseStream);
-    if (html.contains("<head>")) {
-      html = html.replace("<head>", "<head>\n" + js + "\n");
-    } else if (html.contains("</head>")) {
-      html = html.replace("</head>", js + "\n" + "</head>");
+    prepareScript();
+    return new InjectingInputStream(responseStream);
+  }
+
+  /**
+   * Return the injected start page at <code>path</code>, reading it from
+   * <code>opener</code> only if it isn't cached yet.
+   * @param path
+   * @param opener
+   * @return
+   * @throws IOException
+   */
+  public InputStream getInjectedDocument(String path, DocumentOpener opener) throws IOException {
+    byte[] document;
+    synchronized (this) {
+      document = path.equals(cachedDocumentPath) ? cachedDocument : null;
+    }
+    if (document == null) {
+      InputStream stream = opener.open();
+      try {
+        document = inject(readFully(stream));
+      } finally {
+        stream.close();
+      }
+      synchronized (this) {
+        cachedDocumentPath = path;
+        cachedDocument = document;
+      }
+    }
+    return new ByteArrayInputStream(document);
+  }
+
+  /**
+   * Drop the cached start page, for example when the server base path changes
+   */
+  public synchronized void clearDocumentCache() {
+    cachedDocumentPath = null;
+    cachedDocument = null;
+  }
+
+  interface DocumentOpener {
+    InputStream open() throws IOException;
+  }
+
+  private synchronized void prepareScript() {
+    if (scriptAfterHeadOpen == null) {
+      String js = "<script type=\"text/javascript\">" + getScriptString() + "</script>";
+      scriptAfterHeadOpen = ("\n" + js + "\n").getBytes(StandardCharsets.UTF_8);
+      scriptBeforeHeadClose = (js + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+  }
+
+  private byte[] inject(byte[] html) {
+    prepareScript();
+    int headOpen = indexOf(html, html.length, HEAD_OPEN);
+    int insertAt;
+    byte[] script;
+    if (headOpen >= 0) {
+      insertAt = headOpen + HEAD_OPEN.length;
+      script = scriptAfterHeadOpen;
     } else {
+      insertAt = indexOf(html, html.length, HEAD_CLOSE);
+      script = scriptBeforeHeadClose;
+    }
+    if (insertAt < 0) {
       Logger.error("Unable to inject Capacitor, Plugins won't work");
+      return html;
     }
-    return new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8));
+    byte[] injected = new byte[html.length + script.length];
+    System.arraycopy(html, 0, injected, 0, insertAt);
+    System.arraycopy(script, 0, injected, insertAt, script.length);
+    System.arraycopy(html, insertAt, injected, insertAt + script.length, html.length - insertAt);
+    return injected;
   }
 
-  private String readAssetStream(InputStream stream) {
-    try {
-      final int bufferSize = 1024;
-      final char[] buffer = new char[bufferSize];
-      final StringBuilder out = new StringBuilder();
-      Reader in = new InputStreamReader(stream, "UTF-8");
-      for (; ; ) {
-        int rsz = in.read(buffer, 0, buffer.length);
-        if (rsz < 0)
-          break;
-        out.append(buffer, 0, rsz);
-      }
-      return out.toString();
-    } catch (Exception e) {
-      Logger.error("Unable to process HTML asset file. This is a fatal error", e);
+  private static byte[] readFully(InputStream stream) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(stream.available(), 8192));
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = stream.read(buffer)) != -1) {
+      out.write(buffer, 0, read);
     }
+    return out.toByteArray();
+  }
 
-    return "";
+  private static int indexOf(byte[] data, int length, byte[] pattern) {
+    outer:
+    for (int i = 0; i <= length - pattern.length; i++) {
+      for (int j = 0; j < pattern.length; j++) {
+        if (data[i + j] != pattern[j]) {
+          continue outer;
+        }
+      }
+      return i;
+    }
+    return -1;
   }
 
+  /**
+   * Passes a page through, inserting the script after the first <code>&lt;head&gt;</code>,
+   * or before <code>&lt;/head&gt;</code> if the head tag comes with attributes. Only the
+   * few bytes that could be the start of a tag split across reads are held back.
+   */
+  private class InjectingInputStream extends InputStream {
+    private final InputStream in;
+    private byte[] window = new byte[8192 + HEAD_CLOSE.length];
+    private int windowLength;
+    private byte[] pending;
+    private int pendingPos;
+    private boolean injected;
+
+    InjectingInputStream(InputStream in) {
+      this.in = in;
+    }
+
+    /**
+     * Fill <code>pending</code> with the next run of bytes. Returns false at the end of the page.
+     */
+    private boolean fill() throws IOException {
+      while (pending == null || pendingPos >= pending.length) {
+        pending = null;
+        pendingPos = 0;
+        if (injected) {
+          return false;
+        }
+        int read = in.read(window, windowLength, window.length - windowLength);
+        if (read == -1) {
+          // End of page: flush what was held back
+          if (windowLength > 0) {
+            Logger.error("Unable to inject Capacitor, Plugins won't work");
+          }
+          injected = true;
+          if (windowLength > 0) {
+            pending = copy(window, 0, windowLength);
+            windowLength = 0;
+          }
+          continue;
+        }
+        windowLength += read;
+        scan();
+      }
+      return true;
+    }
+
+    private void scan() {
+      int headOpen = indexOf(window, windowLength, HEAD_OPEN);
+      int headClose = indexOf(window, windowLength, HEAD_CLOSE);
+      if (headOpen >= 0 && (headClose < 0 || headOpen < headClose)) {
+        splice(headOpen + HEAD_OPEN.length, scriptAfterHeadOpen);
+      } else if (headClose >= 0) {
+        splice(headClose, scriptBeforeHeadClose);
+      } else {
+        // Emit all but a possible partial tag at the end of the window
+        int keep = Math.min(windowLength, HEAD_CLOSE.length - 1);
+        int emit = windowLength - keep;
+        pending = copy(window, 0, emit);
+        System.arraycopy(window, emit, window, 0, keep);
+        windowLength = keep;
+      }
+    }
+
+    private void splice(int insertAt, byte[] script) {
+      pending = new byte[windowLength + script.length];
+      System.arraycopy(window, 0, pending, 0, insertAt);
+      System.arraycopy(script, 0, pending, insertAt, script.length);
+      System.arraycopy(window, insertAt, pending, insertAt + script.length, windowLength - insertAt);
+      windowLength = 0;
+      window = null;
+      injected = true;
+    }
+
+    private byte[] copy(byte[] source, int from, int length) {
+      byte[] out = new byte[length];
+      System.arraycopy(source, from, out, 0, length);
+      return out;
+    }
+
+    @Override
+    public int available() throws IOException {
+      if (pending != null && pendingPos < pending.length) {
+        return pending.length - pendingPos;
+      }
+      return in.available();
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (pending == null && injected) {
+        return in.read();
+      }
+      if (!fill()) {
+        return in.read();
+      }
+      return pending[pendingPos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte b[], int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+      if (pending == null && injected) {
+        return in.read(b, off, len);
+      }
+      if (!fill()) {
+        return in.read(b, off, len);
+      }
+      int n = Math.min(len, pending.length - pendingPos);
+      System.arraycopy(pending, pendingPos, b, off, n);
+      pendingPos += n;
+      return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
 }
@@ -2,6 +2,7 @@ package com.getcapacitor;
 
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -25,6 +26,14 @@ public class JSObject extends JSONObject {
     super(obj, names);
   }
 
+  /**
+   * Parse the object at the tokener's current position
+   * @param tokener
+   */
+  public JSObject(JSONTokener tokener) throws JSONException {
+    super(tokener);
+  }
+
   /**
    * Convert a pathetic JSONObject into a JSObject
    * @param obj
@@ -0,0 +1,233 @@
+package com.getcapacitor;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A message from the WebView, read lazily. Scanning a message only decodes its short
+ * top-level string fields (type, callbackId, pluginId, ...). Object values such as
+ * <code>options</code> are only located, and are parsed straight from the message text
+ * the first time they're asked for, so a large payload is materialized once, and not at
+ * all if the plugin never reads it.
+ */
+class MessageEnvelope {
+  // Top-level string values longer than this are left in place until asked for
+  private static final int MAX_EAGER_STRING = 256;
+
+  private final String json;
+  private final Map<String, String> strings = new HashMap<>();
+  private final Map<String, int[]> values = new HashMap<>();
+  private final int start;
+  private final int end;
+
+  private MessageEnvelope(String json, int start) throws JSONException {
+    this.json = json;
+    this.start = start;
+    this.end = scanObject(start);
+  }
+
+  /**
+   * Scan a single JSON object message
+   */
+  static MessageEnvelope parse(String json) throws JSONException {
+    MessageEnvelope envelope = new MessageEnvelope(json, skipWhitespace(json, 0));
+    if (skipWhitespace(json, envelope.end) != json.length()) {
+      throw new JSONException("Unexpected content after message at " + envelope.end);
+    }
+    return envelope;
+  }
+
+  /**
+   * Scan a JSON array of object messages
+   */
+  static List<MessageEnvelope> parseArray(String json) throws JSONException {
+    List<MessageEnvelope> messages = new ArrayList<>();
+    int pos = skipWhitespace(json, 0);
+    pos = expect(json, pos, '[');
+    pos = skipWhitespace(json, pos);
+    if (peek(json, pos) == ']') {
+      return messages;
+    }
+    while (true) {
+      MessageEnvelope message = new MessageEnvelope(json, skipWhitespace(json, pos));
+      messages.add(message);
+      pos = skipWhitespace(json, message.end);
+      char c = peek(json, pos);
+      if (c == ']') {
+        return messages;
+      }
+      pos = expect(json, pos, ',');
+    }
+  }
+
+  /**
+   * A top-level string value. Non-string scalars are returned as their JSON text, the
+   * same as JSObject.getString.
+   */
+  String getString(String key) throws JSONException {
+    if (strings.containsKey(key)) {
+      return strings.get(key);
+    }
+    int[] span = values.get(key);
+    if (span == null) {
+      return null;
+    }
+    Object value = tokenerAt(span).nextValue();
+    String string = value == JSONObject.NULL ? null : value.toString();
+    strings.put(key, string);
+    return string;
+  }
+
+  /**
+   * A top-level object value, parsed from the message text, or null if it's missing or
+   * not an object
+   */
+  JSObject getObject(String key) throws JSONException {
+    int[] span = values.get(key);
+    if (span == null || json.charAt(span[0]) != '{') {
+      return null;
+    }
+    return new JSObject(tokenerAt(span));
+  }
+
+  /**
+   * The JSON text of the whole message
+   */
+  @Override
+  public String toString() {
+    return json.substring(start, end);
+  }
+
+  /**
+   * A tokener over just the given value, so reading a value late in a large batch
+   * doesn't copy or walk everything before it
+   */
+  private JSONTokener tokenerAt(int[] span) {
+    return new JSONTokener(json.substring(span[0], span[1]));
+  }
+
+  private int scanObject(int pos) throws JSONException {
+    pos = expect(json, pos, '{');
+    pos = skipWhitespace(json, pos);
+    if (peek(json, pos) == '}') {
+      return pos + 1;
+    }
+    while (true) {
+      pos = skipWhitespace(json, pos);
+      if (peek(json, pos) != '"') {
+        throw new JSONException("Expected a key at " + pos);
+      }
+      int keyEnd = skipString(json, pos);
+      String key = decodeString(json, pos, keyEnd);
+      pos = skipWhitespace(json, keyEnd);
+      pos = expect(json, pos, ':');
+      pos = skipWhitespace(json, pos);
+
+      int valueEnd = skipValue(json, pos);
+      if (peek(json, pos) == '"' && valueEnd - pos <= MAX_EAGER_STRING) {
+        strings.put(key, decodeString(json, pos, valueEnd));
+      } else {
+        values.put(key, new int[] { pos, valueEnd });
+      }
+
+      pos = skipWhitespace(json, valueEnd);
+      char c = peek(json, pos);
+      if (c == '}') {
+        return pos + 1;
+      }
+      pos = expect(json, pos, ',');
+    }
+  }
+
+  private static int skipValue(String json, int pos) throws JSONException {
+    char c = peek(json, pos);
+    if (c == '"') {
+      return skipString(json, pos);
+    }
+    if (c == '{' || c == '[') {
+      int depth = 0;
+      while (pos < json.length()) {
+        c = json.charAt(pos);
+        if (c == '"') {
+          pos = skipString(json, pos);
+          continue;
+        }
+        if (c == '{' || c == '[') {
+          depth++;
+        } else if (c == '}' || c == ']') {
+          depth--;
+          if (depth == 0) {
+            return pos + 1;
+          }
+        }
+        pos++;
+      }
+      throw new JSONException("Unterminated value");
+    }
+    // Number, true, false or null
+    int start = pos;
+    while (pos < json.length()) {
+      c = json.charAt(pos);
+      if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+        break;
+      }
+      pos++;
+    }
+    if (pos == start) {
+      throw new JSONException("Expected a value at " + start);
+    }
+    return pos;
+  }
+
+  /**
+   * @return the index just past the closing quote of the string starting at pos
+   */
+  private static int skipString(String json, int pos) throws JSONException {
+    for (int i = pos + 1; i < json.length(); i++) {
+      char c = json.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (c == '"') {
+        return i + 1;
+      }
+    }
+    throw new JSONException("Unterminated string at " + pos);
+  }
+
+  private static String decodeString(String json, int start, int end) throws JSONException {
+    int close = end - 1;
+    for (int i = start + 1; i < close; i++) {
+      if (json.charAt(i) == '\\') {
+        return new JSONTokener(json.substring(start, end)).nextValue().toString();
+      }
+    }
+    return json.substring(start + 1, close);
+  }
+
+  private static int skipWhitespace(String json, int pos) {
+    while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+      pos++;
+    }
+    return pos;
+  }
+
+  private static char peek(String json, int pos) throws JSONException {
+    if (pos >= json.length()) {
+      throw new JSONException("Unexpected end of message");
+    }
+    return json.charAt(pos);
+  }
+
+  private static int expect(String json, int pos, char expected) throws JSONException {
+    if (peek(json, pos) != expected) {
+      throw new JSONException("Expected " + expected + " at " + pos);
+    }
+    return pos + 1;
+  }
+}
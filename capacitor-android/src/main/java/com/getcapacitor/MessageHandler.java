@@ -4,6 +4,12 @@ import android.webkit.JavascriptInterface;
 import android.webkit.WebView;
 
 import org.apache.cordova.PluginManager;
+import org.json.JSONException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * MessageHandler handles messages from the WebView, dispatching them
@@ -14,6 +20,21 @@ public class MessageHandler {
   private WebView webView;
   private PluginManager cordovaPluginManager;
 
+  // Results waiting to be sent to the WebView in a single evaluateJavascript call, in order.
+  // Collapsible results are keyed by callback id and collapse key, others by a key of their own.
+  private final Object outboxLock = new Object();
+  private Map<Object, String> outbox = new LinkedHashMap<>();
+  // Collapsible results wait for the next frame; anything else is flushed right away, as
+  // frames stop while the screen is off or the app is in the background
+  private boolean frameFlushScheduled = false;
+  private boolean flushScheduled = false;
+  private final Runnable flushOutbox = new Runnable() {
+    @Override
+    public void run() {
+      flushOutbox();
+    }
+  };
+
   public MessageHandler(Bridge bridge, WebView webView, PluginManager cordovaPluginManager) {
     this.bridge = bridge;
     this.webView = webView;
@@ -31,41 +52,82 @@ public class MessageHandler {
   @SuppressWarnings("unused")
   public void postMessage(String jsonStr) {
     try {
-      JSObject postData = new JSObject(jsonStr);
+      handleMessage(MessageEnvelope.parse(jsonStr));
+    } catch (Exception ex) {
+      Logger.error("Post message error:", ex);
+    }
+  }
+
+  /**
+   * Receive several messages from JavaScript in one call, as a JSON array.
+   * Each message is handled as if it had been sent through postMessage.
+   * @param jsonArrayStr
+   */
+  @JavascriptInterface
+  @SuppressWarnings("unused")
+  public void postMessages(String jsonArrayStr) {
+    List<MessageEnvelope> messages;
+    try {
+      messages = MessageEnvelope.parseArray(jsonArrayStr);
+    } catch (Exception ex) {
+      Logger.error("Post messages error:", ex);
+      return;
+    }
 
-      String type = postData.getString("type");
+    for (MessageEnvelope message : messages) {
+      try {
+        handleMessage(message);
+      } catch (Exception ex) {
+        Logger.error("Post message error:", ex);
+      }
+    }
+  }
 
-      boolean typeIsNotNull = type != null;
-      boolean isCordovaPlugin = typeIsNotNull && type.equals("cordova");
-      boolean isJavaScriptError = typeIsNotNull && type.equals("js.error");
+  /**
+   * Only the envelope fields are decoded here. The call options are parsed from the
+   * message text when the plugin first reads them.
+   */
+  private void handleMessage(MessageEnvelope postData) throws JSONException {
+    String type = postData.getString("type");
 
-      String callbackId = postData.getString("callbackId");
+    boolean typeIsNotNull = type != null;
+    boolean isCordovaPlugin = typeIsNotNull && type.equals("cordova");
+    boolean isJavaScriptError = typeIsNotNull && type.equals("js.error");
 
-      if (isCordovaPlugin) {
-        String service = postData.getString("service");
-        String action = postData.getString("action");
-        String actionArgs = postData.getString("actionArgs");
+    String callbackId = postData.getString("callbackId");
 
-        Logger.verbose(Logger.tags("Plugin"), "To native (Cordova plugin): callbackId: " + callbackId + ", service: " + service + ", action: " + action + ", actionArgs: " + actionArgs);
+    if (isCordovaPlugin) {
+      String service = postData.getString("service");
+      String action = postData.getString("action");
+      String actionArgs = postData.getString("actionArgs");
 
-        this.callCordovaPluginMethod(callbackId, service, action, actionArgs);
-      } else if (isJavaScriptError) {
-        Logger.error("JavaScript Error: " + jsonStr);
-      } else {
-        String pluginId = postData.getString("pluginId");
-        String methodName = postData.getString("methodName");
-        JSObject methodData = postData.getJSObject("options", new JSObject());
+      Logger.verbose(Logger.tags("Plugin"), "To native (Cordova plugin): callbackId: " + callbackId + ", service: " + service + ", action: " + action + ", actionArgs: " + actionArgs);
 
-        Logger.verbose(Logger.tags("Plugin"), "To native (Capacitor plugin): callbackId: " + callbackId + ", pluginId: " + pluginId + ", methodName: " + methodName);
+      this.callCordovaPluginMethod(callbackId, service, action, actionArgs);
+    } else if (isJavaScriptError) {
+      Logger.error("JavaScript Error: " + postData.toString());
+    } else {
+      String pluginId = postData.getString("pluginId");
+      String methodName = postData.getString("methodName");
 
-        this.callPluginMethod(callbackId, pluginId, methodName, methodData);
-      }
-    } catch (Exception ex) {
-      Logger.error("Post message error:", ex);
+      Logger.verbose(Logger.tags("Plugin"), "To native (Capacitor plugin): callbackId: " + callbackId + ", pluginId: " + pluginId + ", methodName: " + methodName);
+
+      this.callPluginMethod(callbackId, pluginId, methodName, postData);
     }
   }
 
   public void sendResponseMessage(PluginCall call, PluginResult successResult, PluginResult errorResult) {
+    sendResponseMessage(call, successResult, errorResult, null);
+  }
+
+  /**
+   * Queue a result for the WebView. Results are delivered in order. Collapsible results
+   * are batched per frame, other results are sent on the next turn of the UI thread.
+   * @param collapseKey null for a result that must be delivered. Otherwise a later result
+   *                    for the same call with the same key, queued before this one is sent,
+   *                    supersedes it and takes its place at the end of the queue.
+   */
+  public void sendResponseMessage(PluginCall call, PluginResult successResult, PluginResult errorResult, String collapseKey) {
     try {
       PluginResult data = new PluginResult();
       data.put("save", call.isSaved());
@@ -85,10 +147,7 @@ public class MessageHandler {
 
       boolean isValidCallbackId = !call.getCallbackId().equals(PluginCall.CALLBACK_ID_DANGLING);
       if (isValidCallbackId) {
-        final String runScript = "window.Capacitor.fromNative(" + data.toString() + ")";
-        final WebView webView = this.webView;
-
-        webView.post(() -> webView.evaluateJavascript(runScript, null));
+        enqueue(call.getCallbackId(), data.toString(), collapseKey);
       } else {
         bridge.storeDanglingPluginResult(call, data);
       }
@@ -98,8 +157,64 @@ public class MessageHandler {
     }
   }
 
-  private void callPluginMethod(String callbackId, String pluginId, String methodName, JSObject methodData) {
-    PluginCall call = new PluginCall(this, pluginId, callbackId, methodName, methodData);
+  private void enqueue(String callbackId, String result, String collapseKey) {
+    boolean collapsible = collapseKey != null;
+    synchronized (outboxLock) {
+      if (collapsible) {
+        String key = callbackId + '\n' + collapseKey;
+        // Remove first, so the newer result goes after everything queued before it
+        outbox.remove(key);
+        outbox.put(key, result);
+      } else {
+        outbox.put(new Object(), result);
+      }
+
+      if (flushScheduled || (collapsible && frameFlushScheduled)) {
+        return;
+      }
+      if (collapsible) {
+        frameFlushScheduled = true;
+      } else {
+        flushScheduled = true;
+      }
+    }
+    if (collapsible) {
+      webView.postOnAnimation(flushOutbox);
+    } else {
+      webView.post(flushOutbox);
+    }
+  }
+
+  private void flushOutbox() {
+    List<String> results;
+    synchronized (outboxLock) {
+      results = new ArrayList<>(outbox.values());
+      outbox = new LinkedHashMap<>();
+      frameFlushScheduled = false;
+      flushScheduled = false;
+    }
+    if (results.isEmpty()) {
+      return;
+    }
+
+    StringBuilder runScript = new StringBuilder();
+    if (results.size() == 1) {
+      runScript.append("window.Capacitor.fromNative(").append(results.get(0)).append(")");
+    } else {
+      runScript.append("(function(r){for(var i=0;i<r.length;i++){window.Capacitor.fromNative(r[i]);}})([");
+      for (int i = 0; i < results.size(); i++) {
+        if (i > 0) {
+          runScript.append(',');
+        }
+        runScript.append(results.get(i));
+      }
+      runScript.append("])");
+    }
+    webView.evaluateJavascript(runScript.toString(), null);
+  }
+
+  private void callPluginMethod(String callbackId, String pluginId, String methodName, MessageEnvelope message) {
+    PluginCall call = new PluginCall(this, pluginId, callbackId, methodName, message);
     bridge.callPluginMethod(pluginId, methodName, call);
   }
 
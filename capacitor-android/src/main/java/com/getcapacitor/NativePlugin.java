@@ -30,4 +30,16 @@ public @interface NativePlugin {
    * simple class name.
    */
   String name() default "";
+
+  /**
+   * The PluginExecutor lane calls to this plugin run on. Plugins that
+   * block on disk or network should use {@link PluginExecutor#LANE_IO}
+   */
+  String lane() default PluginExecutor.LANE_DEFAULT;
+
+  /**
+   * Whether calls to this plugin run one at a time in the order they
+   * were made. When false, calls on a multi-threaded lane may overlap
+   */
+  boolean ordered() default true;
 }
@@ -361,6 +361,36 @@ public class Plugin {
     notifyListeners(eventName, data, false);
   }
 
+  /**
+   * Notify all listeners of a progress event. Unlike {@link Plugin#notifyListeners(String, JSObject)},
+   * an event that is superseded by a newer one before the WebView's next frame is dropped, so
+   * high-frequency progress doesn't flood the WebView
+   * @param eventName
+   * @param data
+   */
+  protected void notifyProgressListeners(String eventName, JSObject data) {
+    notifyProgressListeners(eventName, data, "");
+  }
+
+  /**
+   * Notify all listeners of a progress event that only supersedes earlier events with the
+   * same key, such as the progress of one of several operations running at once. A final
+   * event that must be delivered should go through {@link Plugin#notifyListeners(String, JSObject)}
+   * @param eventName
+   * @param data
+   * @param collapseKey
+   */
+  protected void notifyProgressListeners(String eventName, JSObject data, String collapseKey) {
+    List<PluginCall> listeners = eventListeners.get(eventName);
+    if (listeners == null) {
+      return;
+    }
+
+    for(PluginCall call : listeners) {
+      call.progress(data, collapseKey);
+    }
+  }
+
   /**
    * Check if there are any listeners for the given event
    */
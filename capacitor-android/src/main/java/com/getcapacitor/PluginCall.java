@@ -24,7 +24,9 @@ public class PluginCall {
   private final String pluginId;
   private final String callbackId;
   private final String methodName;
-  private final JSObject data;
+  private JSObject data;
+  // The message the options come from, until they are first read
+  private MessageEnvelope message;
 
   private boolean shouldSave = false;
 
@@ -41,6 +43,17 @@ public class PluginCall {
     this.data = data;
   }
 
+  /**
+   * Create a call whose options are parsed from the message when they are first read
+   */
+  PluginCall(MessageHandler msgHandler, String pluginId, String callbackId, String methodName, MessageEnvelope message) {
+    this.msgHandler = msgHandler;
+    this.pluginId = pluginId;
+    this.callbackId = callbackId;
+    this.methodName = methodName;
+    this.message = message;
+  }
+
   public void successCallback(PluginResult successResult) {
     if (CALLBACK_ID_DANGLING.equals(this.callbackId)) {
       // don't send back response if the callbackId was "-1"
@@ -60,6 +73,27 @@ public class PluginCall {
     this.success(new JSObject());
   }
 
+  /**
+   * Send an intermediate result, such as a progress update, to a saved call. If a newer
+   * progress result for this call is sent before the WebView's next frame, only the newer
+   * one is delivered.
+   * @param data
+   */
+  public void progress(JSObject data) {
+    progress(data, "");
+  }
+
+  /**
+   * Send an intermediate result that only supersedes earlier ones with the same key, such as
+   * the progress of one of several operations reported through the same call
+   * @param data
+   * @param collapseKey
+   */
+  public void progress(JSObject data, String collapseKey) {
+    PluginResult result = new PluginResult(data);
+    this.msgHandler.sendResponseMessage(this, result, null, collapseKey);
+  }
+
   public void resolve(JSObject data) {
     PluginResult result = new PluginResult(data);
     this.msgHandler.sendResponseMessage(this, result, null);
@@ -134,7 +168,18 @@ public class PluginCall {
 
   public String getMethodName() { return this.methodName; }
 
-  public JSObject getData() {
+  public synchronized JSObject getData() {
+    if (this.data == null) {
+      try {
+        this.data = this.message != null ? this.message.getObject("options") : null;
+      } catch (JSONException ex) {
+        Logger.error("Unable to parse options for " + this.pluginId + "." + this.methodName, ex);
+      }
+      if (this.data == null) {
+        this.data = new JSObject();
+      }
+      this.message = null;
+    }
     return this.data;
   }
 
@@ -142,7 +187,7 @@ public class PluginCall {
     return this.getString(name, null);
   }
   public String getString(String name, String defaultValue) {
-    Object value = this.data.opt(name);
+    Object value = getData().opt(name);
     if(value == null) { return defaultValue; }
 
     if(value instanceof String) {
@@ -155,7 +200,7 @@ public class PluginCall {
     return this.getInt(name, null);
   }
   public Integer getInt(String name, Integer defaultValue) {
-    Object value = this.data.opt(name);
+    Object value = getData().opt(name);
     if(value == null) { return defaultValue; }
 
     if(value instanceof Integer) {
@@ -164,11 +209,27 @@ public class PluginCall {
     return defaultValue;
   }
 
+  public Long getLong(String name) {
+    return this.getLong(name, null);
+  }
+  public Long getLong(String name, Long defaultValue) {
+    Object value = getData().opt(name);
+    if(value == null) { return defaultValue; }
+
+    if(value instanceof Long) {
+      return (Long) value;
+    }
+    if(value instanceof Integer) {
+      return ((Integer) value).longValue();
+    }
+    return defaultValue;
+  }
+
   public Float getFloat(String name) {
     return this.getFloat(name, null);
   }
   public Float getFloat(String name, Float defaultValue) {
-    Object value = this.data.opt(name);
+    Object value = getData().opt(name);
     if(value == null) { return defaultValue; }
 
     if(value instanceof Float) {
@@ -187,7 +248,7 @@ public class PluginCall {
     return this.getDouble(name, null);
   }
   public Double getDouble(String name, Double defaultValue) {
-    Object value = this.data.opt(name);
+    Object value = getData().opt(name);
     if(value == null) { return defaultValue; }
 
     if(value instanceof Double) {
@@ -206,7 +267,7 @@ public class PluginCall {
     return this.getBoolean(name, null);
   }
   public Boolean getBoolean(String name, Boolean defaultValue) {
-    Object value = this.data.opt(name);
+    Object value = getData().opt(name);
     if(value == null) { return defaultValue; }
 
     if(value instanceof Boolean) {
@@ -220,7 +281,7 @@ public class PluginCall {
   }
 
   public JSObject getObject(String name, JSObject defaultValue) {
-    Object value = this.data.opt(name);
+    Object value = getData().opt(name);
     if(value == null) { return defaultValue; }
 
     if(value instanceof JSONObject) {
@@ -244,7 +305,7 @@ public class PluginCall {
    * @return
    */
   public JSArray getArray(String name, JSArray defaultValue) {
-    Object value = this.data.opt(name);
+    Object value = getData().opt(name);
     if(value == null) { return defaultValue; }
 
     if(value instanceof JSONArray) {
@@ -263,7 +324,7 @@ public class PluginCall {
   }
 
   public boolean hasOption(String name) {
-    return this.data.has(name);
+    return getData().has(name);
   }
 
   /**
@@ -0,0 +1,36 @@
+package com.getcapacitor;
+
+/**
+ * A direct-call table for the @PluginMethod methods of a plugin, generated at compile time
+ * by the capacitor-android-processor module as <code>&lt;PluginClass&gt;_PluginDispatcher</code>.
+ * When one is present, PluginHandle uses it instead of indexing and invoking through reflection.
+ */
+public interface PluginDispatcher {
+  String CLASS_SUFFIX = "_PluginDispatcher";
+
+  /**
+   * @return the names of the plugin's @PluginMethod methods
+   */
+  String[] getMethodNames();
+
+  /**
+   * @return the PluginMethod return type of each method, in the same order as getMethodNames
+   */
+  String[] getReturnTypes();
+
+  /**
+   * @return the PluginMethod lane of each method, in the same order as getMethodNames
+   */
+  String[] getLanes();
+
+  /**
+   * @return the PluginMethod ordered flag of each method, in the same order as getMethodNames
+   */
+  boolean[] getOrdered();
+
+  /**
+   * Call a method on the plugin.
+   * @return false if the plugin has no such method
+   */
+  boolean invoke(Plugin plugin, String methodName, PluginCall call);
+}
@@ -0,0 +1,271 @@
+package com.getcapacitor;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs plugin calls on lanes, so that a slow call on one lane doesn't hold up calls on another.
+ *
+ * The default lane is the single "CapacitorPlugins" thread every call used to run on, and is
+ * meant for cheap calls. The io lane is a bounded pool for calls that block on disk or network.
+ * Plugins pick a lane with <code>@NativePlugin(lane = ...)</code>, methods can override it with
+ * <code>@PluginMethod(lane = ...)</code>. Calls to an ordered plugin still run one at a time, in
+ * the order they were made, on each lane.
+ */
+public class PluginExecutor {
+  public static final String LANE_DEFAULT = "default";
+  public static final String LANE_IO = "io";
+
+  private static final int IO_THREADS = 4;
+
+  // Null when the default lane runs on a given executor
+  private final HandlerThread handlerThread;
+  private final ExecutorService ioPool;
+  private final Map<String, Lane> lanes = new LinkedHashMap<>();
+
+  public PluginExecutor() {
+    handlerThread = new HandlerThread("CapacitorPlugins");
+    handlerThread.start();
+    final Handler handler = new Handler(handlerThread.getLooper());
+
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(IO_THREADS, IO_THREADS, 30, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+      private final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable r) {
+        return new Thread(r, "CapacitorPlugins-io-" + count.incrementAndGet());
+      }
+    });
+    pool.allowCoreThreadTimeOut(true);
+    ioPool = pool;
+
+    addLanes(new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        handler.post(command);
+      }
+    });
+  }
+
+  /**
+   * Run the lanes on the given executors instead of the plugin thread and the io pool
+   * @param defaultExecutor must run tasks one at a time, in order
+   */
+  PluginExecutor(Executor defaultExecutor, ExecutorService ioPool) {
+    this.handlerThread = null;
+    this.ioPool = ioPool;
+    addLanes(defaultExecutor);
+  }
+
+  private void addLanes(Executor defaultExecutor) {
+    lanes.put(LANE_DEFAULT, new Lane(LANE_DEFAULT, defaultExecutor, true));
+    lanes.put(LANE_IO, new Lane(LANE_IO, ioPool, false));
+  }
+
+  /**
+   * Run a task on a lane.
+   * @param laneName the lane to run on, unknown lanes fall back to the default lane
+   * @param orderingKey tasks sharing a key run one at a time in submission order, null for none
+   * @param task the task to run
+   */
+  public void execute(String laneName, String orderingKey, Runnable task) {
+    getLane(laneName).execute(orderingKey, task);
+  }
+
+  /**
+   * Run a task on the default lane, the same thread as before lanes existed
+   */
+  public void execute(Runnable task) {
+    getLane(LANE_DEFAULT).execute(null, task);
+  }
+
+  /**
+   * A snapshot of the queue depth and wait times of every lane, by lane name
+   */
+  public Map<String, LaneStats> getStats() {
+    Map<String, LaneStats> stats = new LinkedHashMap<>();
+    for (Lane lane : lanes.values()) {
+      stats.put(lane.name, lane.getStats());
+    }
+    return stats;
+  }
+
+  public void shutdown() {
+    if (handlerThread != null) {
+      handlerThread.quitSafely();
+    }
+    ioPool.shutdown();
+  }
+
+  private Lane getLane(String laneName) {
+    Lane lane = laneName == null ? null : lanes.get(laneName);
+    if (lane == null) {
+      if (laneName != null && !laneName.isEmpty()) {
+        Logger.error("Unknown plugin lane " + laneName + ", using " + LANE_DEFAULT);
+      }
+      lane = lanes.get(LANE_DEFAULT);
+    }
+    return lane;
+  }
+
+  public static class LaneStats {
+    private final int queued;
+    private final int running;
+    private final long completed;
+    private final long totalWaitMillis;
+    private final long maxWaitMillis;
+
+    LaneStats(int queued, int running, long completed, long totalWaitNanos, long maxWaitNanos) {
+      this.queued = queued;
+      this.running = running;
+      this.completed = completed;
+      this.totalWaitMillis = TimeUnit.NANOSECONDS.toMillis(totalWaitNanos);
+      this.maxWaitMillis = TimeUnit.NANOSECONDS.toMillis(maxWaitNanos);
+    }
+
+    /**
+     * @return tasks submitted to the lane that haven't started yet
+     */
+    public int getQueued() {
+      return queued;
+    }
+
+    public int getRunning() {
+      return running;
+    }
+
+    public long getCompleted() {
+      return completed;
+    }
+
+    /**
+     * @return the average time tasks waited between submission and start
+     */
+    public long getAverageWaitMillis() {
+      return completed == 0 ? 0 : totalWaitMillis / completed;
+    }
+
+    public long getMaxWaitMillis() {
+      return maxWaitMillis;
+    }
+
+    @Override
+    public String toString() {
+      return "queued=" + queued + " running=" + running + " completed=" + completed +
+          " avgWaitMs=" + getAverageWaitMillis() + " maxWaitMs=" + maxWaitMillis;
+    }
+  }
+
+  private static class Lane {
+    private final String name;
+    private final Executor executor;
+    // A single-threaded lane already runs everything in order
+    private final boolean serial;
+    private final Map<String, ArrayDeque<Runnable>> orderedQueues = new HashMap<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    Lane(String name, Executor executor, boolean serial) {
+      this.name = name;
+      this.executor = executor;
+      this.serial = serial;
+    }
+
+    void execute(final String orderingKey, Runnable task) {
+      queued.incrementAndGet();
+      final Runnable measured = measure(task);
+      if (orderingKey == null || serial) {
+        submit(measured);
+        return;
+      }
+
+      synchronized (orderedQueues) {
+        ArrayDeque<Runnable> queue = orderedQueues.get(orderingKey);
+        if (queue != null) {
+          // A task for this key is running, this one goes after it
+          queue.add(measured);
+          return;
+        }
+        orderedQueues.put(orderingKey, new ArrayDeque<Runnable>());
+      }
+      submit(ordered(orderingKey, measured));
+    }
+
+    private void submit(Runnable task) {
+      try {
+        executor.execute(task);
+      } catch (RejectedExecutionException ex) {
+        queued.decrementAndGet();
+        Logger.error("Plugin executor is shut down, dropping task on lane " + name);
+      }
+    }
+
+    private Runnable ordered(final String orderingKey, final Runnable task) {
+      return new Runnable() {
+        @Override
+        public void run() {
+          try {
+            task.run();
+          } finally {
+            Runnable next;
+            synchronized (orderedQueues) {
+              ArrayDeque<Runnable> queue = orderedQueues.get(orderingKey);
+              next = queue.poll();
+              if (next == null) {
+                orderedQueues.remove(orderingKey);
+              }
+            }
+            if (next != null) {
+              submit(ordered(orderingKey, next));
+            }
+          }
+        }
+      };
+    }
+
+    private Runnable measure(final Runnable task) {
+      final long submitted = System.nanoTime();
+      return new Runnable() {
+        @Override
+        public void run() {
+          long wait = System.nanoTime() - submitted;
+          queued.decrementAndGet();
+          running.incrementAndGet();
+          totalWaitNanos.addAndGet(wait);
+          long max;
+          while (wait > (max = maxWaitNanos.get()) && !maxWaitNanos.compareAndSet(max, wait)) {
+          }
+          try {
+            task.run();
+          } finally {
+            running.decrementAndGet();
+            completed.incrementAndGet();
+          }
+        }
+      };
+    }
+
+    LaneStats getStats() {
+      return new LaneStats(queued.get(), running.get(), completed.get(), totalWaitNanos.get(), maxWaitNanos.get());
+    }
+  }
+}
@@ -21,6 +21,9 @@ public class PluginHandle {
   private NativePlugin pluginAnnotation;
   private Plugin instance;
 
+  // Generated direct-call table, null if the plugin is dispatched through reflection
+  private PluginDispatcher dispatcher;
+
   public PluginHandle(Bridge bridge, Class<? extends Plugin> pluginClass) throws InvalidPluginException,
                                                                                  PluginLoadException {
     this.bridge = bridge;
@@ -39,7 +42,12 @@ public class PluginHandle {
 
     this.pluginAnnotation = pluginAnnotation;
 
-    this.indexMethods(pluginClass);
+    this.dispatcher = findDispatcher(pluginClass);
+    if (this.dispatcher != null) {
+      this.indexDispatcherMethods(this.dispatcher);
+    } else {
+      this.indexMethods(pluginClass);
+    }
 
     this.load();
   }
@@ -60,6 +68,32 @@ public class PluginHandle {
     return this.pluginMethods.values();
   }
 
+  /**
+   * The PluginExecutor lane a call to the given method runs on
+   */
+  public String getLane(String methodName) {
+    PluginMethodHandle methodMeta = pluginMethods.get(methodName);
+    if (methodMeta != null && !methodMeta.getLane().isEmpty()) {
+      return methodMeta.getLane();
+    }
+    return pluginAnnotation.lane();
+  }
+
+  /**
+   * Whether calls to this plugin must run one at a time in the order they were made
+   */
+  public boolean isOrdered() {
+    return pluginAnnotation.ordered();
+  }
+
+  /**
+   * Whether a call to the given method must wait for the plugin's earlier calls
+   */
+  public boolean isOrdered(String methodName) {
+    PluginMethodHandle methodMeta = pluginMethods.get(methodName);
+    return isOrdered() && (methodMeta == null || methodMeta.isOrdered());
+  }
+
   public Plugin load() throws PluginLoadException {
     if(this.instance != null) {
       return this.instance;
@@ -96,8 +130,40 @@ public class PluginHandle {
       throw new InvalidPluginMethodException("No method " + methodName + " found for plugin " + pluginClass.getName());
     }
 
-    methodMeta.getMethod().invoke(this.instance, call);
+    if (this.dispatcher != null) {
+      this.dispatcher.invoke(this.instance, methodName, call);
+    } else {
+      methodMeta.getMethod().invoke(this.instance, call);
+    }
+
+  }
+
+  /**
+   * Load the PluginDispatcher generated for the plugin class at compile time, if there is one
+   */
+  private static PluginDispatcher findDispatcher(Class<? extends Plugin> pluginClass) {
+    String name = pluginClass.getName();
+    int packageEnd = name.lastIndexOf('.') + 1;
+    String dispatcherName = name.substring(0, packageEnd) + name.substring(packageEnd).replace('$', '_') + PluginDispatcher.CLASS_SUFFIX;
+    try {
+      Class<?> dispatcherClass = Class.forName(dispatcherName, true, pluginClass.getClassLoader());
+      return (PluginDispatcher) dispatcherClass.newInstance();
+    } catch (ClassNotFoundException ex) {
+      return null;
+    } catch (InstantiationException | IllegalAccessException | ClassCastException ex) {
+      Logger.error("Unable to load " + dispatcherName + ", using reflection", ex);
+      return null;
+    }
+  }
 
+  private void indexDispatcherMethods(PluginDispatcher dispatcher) {
+    String[] names = dispatcher.getMethodNames();
+    String[] returnTypes = dispatcher.getReturnTypes();
+    String[] lanes = dispatcher.getLanes();
+    boolean[] ordered = dispatcher.getOrdered();
+    for (int i = 0; i < names.length; i++) {
+      pluginMethods.put(names[i], new PluginMethodHandle(names[i], returnTypes[i], lanes[i], ordered[i]));
+    }
   }
 
   /**
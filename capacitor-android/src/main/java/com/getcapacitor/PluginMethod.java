@@ -10,5 +10,16 @@ public @interface PluginMethod {
   public static String RETURN_NONE = "none";
 
   String returnType() default RETURN_PROMISE;
+
+  /**
+   * The PluginExecutor lane this method runs on, empty to use the plugin's lane
+   */
+  String lane() default "";
+
+  /**
+   * Set to false to let calls to this method overlap with other calls to an ordered plugin,
+   * for methods that are safe to run concurrently
+   */
+  boolean ordered() default true;
 }
 
@@ -9,6 +9,10 @@ public class PluginMethodHandle {
   private final String name;
   // The return type of the method (see PluginMethod for constants)
   private final String returnType;
+  // The executor lane of the method, empty to use the plugin's lane
+  private final String lane;
+  // Whether calls to the method keep the plugin's call order
+  private final boolean ordered;
 
   public PluginMethodHandle(Method method, PluginMethod methodDecorator) {
     this.method = method;
@@ -16,16 +20,42 @@ public class PluginMethodHandle {
     this.name = method.getName();
 
     this.returnType = methodDecorator.returnType();
+
+    this.lane = methodDecorator.lane() != null ? methodDecorator.lane() : "";
+
+    this.ordered = methodDecorator.ordered();
+  }
+
+  /**
+   * A method indexed from a generated PluginDispatcher, with no reflect method behind it
+   */
+  public PluginMethodHandle(String name, String returnType, String lane, boolean ordered) {
+    this.method = null;
+    this.name = name;
+    this.returnType = returnType;
+    this.lane = lane;
+    this.ordered = ordered;
   }
 
   public String getReturnType() {
     return returnType;
   }
 
+  public String getLane() {
+    return lane;
+  }
+
+  public boolean isOrdered() {
+    return ordered;
+  }
+
   public String getName() {
     return name;
   }
 
+  /**
+   * @return the reflect method, or null if the plugin is dispatched through a generated PluginDispatcher
+   */
   public Method getMethod() {
     return method;
   }
@@ -24,4 +24,9 @@ public class PluginRequestCodes {
   public static final int FILESYSTEM_REQUEST_RENAME_PERMISSIONS = 9020;
   public static final int FILESYSTEM_REQUEST_COPY_PERMISSIONS = 9021;
   public static final int FILESYSTEM_REQUEST_ALL_PERMISSIONS = 9022;
+  public static final int FILESYSTEM_REQUEST_READ_STREAM_PERMISSIONS = 9023;
+  public static final int FILESYSTEM_REQUEST_WRITE_STREAM_PERMISSIONS = 9024;
+  public static final int FILESYSTEM_REQUEST_CHUNKED_FILE_PERMISSIONS = 9025;
+  public static final int FILESYSTEM_REQUEST_HASH_PERMISSIONS = 9026;
+  public static final int FILESYSTEM_REQUEST_WALK_PERMISSIONS = 9027;
 }
@@ -16,11 +16,16 @@ limitations under the License.
 package com.getcapacitor;
 
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
 import android.net.Uri;
 import android.webkit.CookieManager;
 import android.webkit.WebResourceRequest;
 import android.webkit.WebResourceResponse;
 
+import com.getcapacitor.util.ByteRange;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
@@ -106,6 +111,15 @@ public class WebViewLocalServer {
 
     abstract public InputStream handle(Uri url);
 
+    /**
+     * Open a seekable descriptor for the resource at <code>url</code>, used to serve byte
+     * ranges without reading the resource from the start. Returns null if the resource
+     * can only be streamed, in which case ranged requests get the full response.
+     */
+    public AssetFileDescriptor openFileDescriptor(Uri url) {
+      return null;
+    }
+
     public String getEncoding() {
       return encoding;
     }
@@ -191,28 +205,12 @@ public class WebViewLocalServer {
   private WebResourceResponse handleLocalRequest(WebResourceRequest request, PathHandler handler) {
     String path = request.getUrl().getPath();
 
-    if (request.getRequestHeaders().get("Range") != null) {
-      InputStream responseStream = new LollipopLazyInputStream(handler, request);
-      String mimeType = getMimeType(path, responseStream);
-      Map<String, String> tempResponseHeaders = handler.getResponseHeaders();
-      int statusCode = 206;
-      try {
-        int totalRange = responseStream.available();
-        String rangeString = request.getRequestHeaders().get("Range");
-        String[] parts = rangeString.split("=");
-        String[] streamParts = parts[1].split("-");
-        String fromRange = streamParts[0];
-        int range = totalRange-1;
-        if (streamParts.length > 1) {
-          range = Integer.parseInt(streamParts[1]);
-        }
-        tempResponseHeaders.put("Accept-Ranges", "bytes");
-        tempResponseHeaders.put("Content-Range", "bytes " + fromRange + "-" + range + "/" + totalRange);
-      } catch (IOException e) {
-        statusCode = 404;
+    String rangeHeader = request.getRequestHeaders().get("Range");
+    if (rangeHeader != null) {
+      WebResourceResponse rangeResponse = handleRangeRequest(request, handler, rangeHeader);
+      if (rangeResponse != null) {
+        return rangeResponse;
       }
-      return new WebResourceResponse(mimeType, handler.getEncoding(),
-              statusCode, handler.getReasonPhrase(), tempResponseHeaders, responseStream);
     }
 
     if (isLocalFile(request.getUrl())) {
@@ -231,19 +229,22 @@ public class WebViewLocalServer {
     if (path.equals("/") || (!request.getUrl().getLastPathSegment().contains(".") && html5mode)) {
       InputStream responseStream;
       try {
-        String startPath = this.basePath + "/index.html";
-        if (isAsset) {
-          responseStream = protocolHandler.openAsset(startPath);
-        } else {
-          responseStream = protocolHandler.openFile(startPath);
-        }
+        final String startPath = this.basePath + "/index.html";
+        final boolean startIsAsset = isAsset;
+        responseStream = jsInjector.getInjectedDocument(startPath, new JSInjector.DocumentOpener() {
+          @Override
+          public InputStream open() throws IOException {
+            if (startIsAsset) {
+              return protocolHandler.openAsset(startPath);
+            }
+            return protocolHandler.openFile(startPath);
+          }
+        });
       } catch (IOException e) {
         Logger.error("Unable to open index.html", e);
         return null;
       }
 
-      responseStream = jsInjector.getInjectedStream(responseStream);
-
       bridge.reset();
       int statusCode = getStatusCode(responseStream, handler.getStatusCode());
       return new WebResourceResponse("text/html", handler.getEncoding(),
@@ -279,6 +280,71 @@ public class WebViewLocalServer {
     return null;
   }
 
+  /**
+   * Serve a single byte range of a local resource, seeking straight to the first requested byte.
+   *
+   * @return the 206 or 416 response, or null if the range should be ignored and the whole
+   * resource served instead
+   */
+  private WebResourceResponse handleRangeRequest(WebResourceRequest request, PathHandler handler, String rangeHeader) {
+    String path = request.getUrl().getPath();
+    AssetFileDescriptor fd = handler.openFileDescriptor(request.getUrl());
+    if (fd == null) {
+      return null;
+    }
+
+    InputStream responseStream = null;
+    try {
+      long totalLength = fd.getLength();
+      if (totalLength == AssetFileDescriptor.UNKNOWN_LENGTH) {
+        totalLength = fd.getParcelFileDescriptor().getStatSize();
+      }
+      ByteRange range = totalLength < 0 ? null : ByteRange.parse(rangeHeader, totalLength);
+      if (range == null) {
+        fd.close();
+        return null;
+      }
+
+      // Copy the handler's headers, they are shared by every request it serves
+      Map<String, String> tempResponseHeaders = new HashMap<>(handler.getResponseHeaders());
+      tempResponseHeaders.put("Accept-Ranges", "bytes");
+      String mimeType = getMimeType(path, null);
+
+      if (!range.isSatisfiable()) {
+        fd.close();
+        tempResponseHeaders.put("Content-Range", "bytes */" + totalLength);
+        return new WebResourceResponse(mimeType, handler.getEncoding(),
+                416, "Range Not Satisfiable", tempResponseHeaders, new ByteArrayInputStream(new byte[0]));
+      }
+
+      responseStream = fd.createInputStream();
+      long skipped = 0;
+      while (skipped < range.getStart()) {
+        long n = responseStream.skip(range.getStart() - skipped);
+        if (n <= 0) {
+          throw new IOException("Unable to seek to byte " + range.getStart());
+        }
+        skipped += n;
+      }
+
+      tempResponseHeaders.put("Content-Range", "bytes " + range.getStart() + "-" + range.getEnd() + "/" + totalLength);
+      tempResponseHeaders.put("Content-Length", String.valueOf(range.getLength()));
+      return new WebResourceResponse(mimeType, handler.getEncoding(),
+              206, "Partial Content", tempResponseHeaders, new RangeInputStream(responseStream, range.getLength()));
+    } catch (IOException e) {
+      Logger.error("Unable to serve range " + rangeHeader + " of " + path, e);
+      try {
+        if (responseStream != null) {
+          responseStream.close();
+        } else {
+          fd.close();
+        }
+      } catch (IOException ignored) {
+      }
+      return null;
+    }
+  }
+
   /**
    * Instead of reading files from the filesystem/assets, proxy through to the URL
    * and let an external server handle it.
@@ -344,7 +410,7 @@ public class WebViewLocalServer {
         } else if (path.endsWith(".wasm")) {
           mimeType = "application/wasm";
         } else {
-          mimeType = URLConnection.guessContentTypeFromStream(stream);
+          mimeType = stream != null ? URLConnection.guessContentTypeFromStream(stream) : null;
         }
       }
     } catch (Exception ex) {
@@ -395,6 +461,7 @@ public class WebViewLocalServer {
   public void hostAssets(String assetPath) {
     this.isAsset = true;
     this.basePath = assetPath;
+    clearDocumentCache();
     createHostingDetails();
   }
 
@@ -410,9 +477,16 @@ public class WebViewLocalServer {
   public void hostFiles(final String basePath) {
     this.isAsset = false;
     this.basePath = basePath;
+    clearDocumentCache();
     createHostingDetails();
   }
 
+  private void clearDocumentCache() {
+    if (jsInjector != null) {
+      jsInjector.clearDocumentCache();
+    }
+  }
+
   private void createHostingDetails() {
     final String assetPath = this.basePath;
 
@@ -443,6 +517,26 @@ public class WebViewLocalServer {
 
         return stream;
       }
+
+      @Override
+      public AssetFileDescriptor openFileDescriptor(Uri url) {
+        String path = url.getPath();
+        try {
+          if (path.startsWith(capacitorContentStart)) {
+            return protocolHandler.openContentUrlFd(url);
+          } else if (path.startsWith(capacitorFileStart) || !isAsset) {
+            if (!path.startsWith(capacitorFileStart)) {
+              path = basePath + url.getPath();
+            }
+            return protocolHandler.openFileFd(path);
+          } else {
+            return protocolHandler.openAssetFd(assetPath + path);
+          }
+        } catch (IOException e) {
+          // Compressed assets and missing files are served through handle() instead
+          return null;
+        }
+      }
     };
 
     for (String authority: authorities) {
@@ -536,6 +630,59 @@ public class WebViewLocalServer {
     }
   }
 
+  /**
+   * Limits a stream that has already been positioned at the start of a range to the range's length.
+   */
+  private static class RangeInputStream extends FilterInputStream {
+    private long remaining;
+
+    RangeInputStream(InputStream in, long length) {
+      super(in);
+      this.remaining = length;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return (int) Math.min(super.available(), remaining);
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int b = super.read();
+      if (b >= 0) {
+        remaining--;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte b[], int off, int len) throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int n = super.read(b, off, (int) Math.min(len, remaining));
+      if (n > 0) {
+        remaining -= n;
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(Math.min(n, remaining));
+      remaining -= skipped;
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+  }
+
   public String getBasePath(){
     return this.basePath;
   }
@@ -0,0 +1,199 @@
+package com.getcapacitor.plugin;
+
+import android.Manifest;
+import android.net.Uri;
+import android.util.Base64;
+import com.getcapacitor.JSObject;
+import com.getcapacitor.Logger;
+import com.getcapacitor.NativePlugin;
+import com.getcapacitor.Plugin;
+import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginExecutor;
+import com.getcapacitor.PluginMethod;
+import com.getcapacitor.plugin.filesystem.ChunkCipher;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.UUID;
+
+import javax.crypto.AEADBadTagException;
+
+/**
+ * Encrypts and decrypts file regions with AES-GCM natively, so that file data doesn't have to
+ * cross the bridge to be encrypted in the WebView.
+ *
+ * encryptFile reads a region of a file and writes the ciphertext to a staging file (or to
+ * toPath/toDirectory), returning its URI with the iv and authentication tag. decryptFile does
+ * the reverse for downloads. Paths and directories are the same as the Filesystem plugin's.
+ * Keys, ivs, tags and aad are base64 encoded. The output is written to a temporary file next
+ * to the target and only renamed over it once it's complete, and the target can't be the
+ * source file.
+ */
+@NativePlugin(
+    lane = PluginExecutor.LANE_IO,
+    ordered = false
+)
+public class FileCrypto extends Plugin {
+
+  private static final String STAGING_DIR = "capacitor-staging";
+
+  private final SecureRandom random = new SecureRandom();
+
+  @PluginMethod()
+  public void encryptFile(PluginCall call) {
+    run(call, true);
+  }
+
+  @PluginMethod()
+  public void decryptFile(PluginCall call) {
+    run(call, false);
+  }
+
+  /**
+   * Delete every staging file
+   */
+  @PluginMethod()
+  public void clearStaging(PluginCall call) {
+    File[] files = getStagingDir().listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    call.success();
+  }
+
+  private void run(PluginCall call, boolean encrypt) {
+    String path = call.getString("path");
+    String directory = call.getString("directory");
+    String toPath = call.getString("toPath");
+    String toDirectory = call.getString("toDirectory");
+    Long offset = call.getLong("offset", 0L);
+    Long length = call.getLong("length");
+
+    if (path == null) {
+      call.error("NO_PATH");
+      return;
+    }
+    if (offset < 0 || (length != null && length < 0)) {
+      call.error("offset and length must not be negative");
+      return;
+    }
+    if ((Filesystem.isPublicDirectory(directory) || Filesystem.isPublicDirectory(toDirectory))
+        && !hasPermission(Manifest.permission.WRITE_EXTERNAL_STORAGE)) {
+      call.error("Storage permission not granted, request it through Filesystem.requestPermissions");
+      return;
+    }
+
+    byte[] key;
+    byte[] iv;
+    byte[] tag = null;
+    byte[] aad;
+    try {
+      key = decode(call, "key", true);
+      iv = decode(call, "iv", !encrypt);
+      aad = decode(call, "aad", false);
+      if (!encrypt) {
+        tag = decode(call, "tag", true);
+      }
+    } catch (IllegalArgumentException ex) {
+      call.error(ex.getMessage());
+      return;
+    }
+    if (iv == null) {
+      iv = new byte[ChunkCipher.IV_LENGTH];
+      random.nextBytes(iv);
+    }
+
+    File source = Filesystem.resolveFile(getContext(), path, directory);
+    File target = toPath != null ? Filesystem.resolveFile(getContext(), toPath, toDirectory) : newStagingFile();
+    if (source == null || target == null) {
+      call.error("INVALID_DIR");
+      return;
+    }
+    if (isSameFile(source, target)) {
+      call.error("The target must not be the source file");
+      return;
+    }
+    if (!target.getParentFile().exists() && !target.getParentFile().mkdirs()) {
+      call.error("Parent folder doesn't exist");
+      return;
+    }
+
+    File temp = new File(target.getParentFile(), "." + target.getName() + "." + UUID.randomUUID().toString() + ".tmp");
+    boolean success = false;
+    try {
+      JSObject ret = new JSObject();
+      try (FileInputStream in = new FileInputStream(source);
+           OutputStream out = new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024)) {
+        if (encrypt) {
+          tag = ChunkCipher.encrypt(in.getChannel(), offset, length, out, key, iv, aad);
+          ret.put("iv", Base64.encodeToString(iv, Base64.NO_WRAP));
+          ret.put("tag", Base64.encodeToString(tag, Base64.NO_WRAP));
+        } else {
+          ChunkCipher.decrypt(in.getChannel(), offset, length, out, key, iv, tag, aad);
+        }
+        out.flush();
+      }
+      if (!temp.renameTo(target)) {
+        throw new IOException("Unable to move the output to " + target.getPath());
+      }
+      success = true;
+      ret.put("uri", Uri.fromFile(target).toString());
+      ret.put("size", target.length());
+      call.success(ret);
+    } catch (AEADBadTagException ex) {
+      call.error("Authentication failed, the data or its key, iv, tag or aad don't match");
+    } catch (IllegalArgumentException ex) {
+      call.error(ex.getMessage());
+    } catch (FileNotFoundException ex) {
+      call.error("File does not exist", ex);
+    } catch (IOException | GeneralSecurityException ex) {
+      Logger.error(getLogTag(), (encrypt ? "Encrypting '" : "Decrypting '") + source.getPath() + "' failed", ex);
+      call.error(encrypt ? "Unable to encrypt file" : "Unable to decrypt file", ex);
+    } finally {
+      if (!success) {
+        // Never leave partial plaintext or ciphertext behind. The target itself is untouched.
+        temp.delete();
+      }
+    }
+  }
+
+  private static boolean isSameFile(File a, File b) {
+    try {
+      return a.getCanonicalFile().equals(b.getCanonicalFile());
+    } catch (IOException ex) {
+      return a.getAbsoluteFile().equals(b.getAbsoluteFile());
+    }
+  }
+
+  private byte[] decode(PluginCall call, String name, boolean required) {
+    String value = call.getString(name);
+    if (value == null) {
+      if (required) {
+        throw new IllegalArgumentException(name + " is required");
+      }
+      return null;
+    }
+    try {
+      return Base64.decode(value, Base64.NO_WRAP);
+    } catch (IllegalArgumentException ex) {
+      throw new IllegalArgumentException(name + " is not valid base64");
+    }
+  }
+
+  private File getStagingDir() {
+    return new File(getContext().getCacheDir(), STAGING_DIR);
+  }
+
+  private File newStagingFile() {
+    return new File(getStagingDir(), UUID.randomUUID().toString() + ".bin");
+  }
+}
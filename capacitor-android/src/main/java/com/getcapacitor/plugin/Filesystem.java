@@ -6,6 +6,9 @@ import android.content.pm.PackageManager;
 import android.media.MediaScannerConnection;
 import android.net.Uri;
 import android.os.Environment;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.ParcelFileDescriptor;
 import android.util.Base64;
 import com.getcapacitor.JSArray;
 import com.getcapacitor.JSObject;
@@ -13,11 +16,21 @@ import com.getcapacitor.Logger;
 import com.getcapacitor.NativePlugin;
 import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
+import com.getcapacitor.PluginExecutor;
 import com.getcapacitor.PluginMethod;
 import com.getcapacitor.PluginRequestCodes;
+import com.getcapacitor.plugin.filesystem.ChunkedFile;
+import com.getcapacitor.plugin.filesystem.CopyTask;
+import com.getcapacitor.plugin.filesystem.DirectoryWalker;
+import com.getcapacitor.plugin.filesystem.FileHasher;
+import com.getcapacitor.plugin.filesystem.ReadStream;
+import com.getcapacitor.plugin.filesystem.TreeDeleter;
+import com.getcapacitor.plugin.filesystem.WriteStream;
 import org.json.JSONException;
+import org.json.JSONObject;
 
 import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -26,9 +39,26 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @NativePlugin(
     requestCodes = {
@@ -42,17 +72,99 @@ import java.nio.charset.StandardCharsets;
       PluginRequestCodes.FILESYSTEM_REQUEST_STAT_PERMISSIONS,
       PluginRequestCodes.FILESYSTEM_REQUEST_RENAME_PERMISSIONS,
       PluginRequestCodes.FILESYSTEM_REQUEST_COPY_PERMISSIONS,
+      PluginRequestCodes.FILESYSTEM_REQUEST_READ_STREAM_PERMISSIONS,
+      PluginRequestCodes.FILESYSTEM_REQUEST_WRITE_STREAM_PERMISSIONS,
+      PluginRequestCodes.FILESYSTEM_REQUEST_CHUNKED_FILE_PERMISSIONS,
+      PluginRequestCodes.FILESYSTEM_REQUEST_HASH_PERMISSIONS,
+      PluginRequestCodes.FILESYSTEM_REQUEST_WALK_PERMISSIONS,
     },
     permissions={
       Manifest.permission.READ_EXTERNAL_STORAGE,
       Manifest.permission.WRITE_EXTERNAL_STORAGE
     },
-    permissionRequestCode = PluginRequestCodes.FILESYSTEM_REQUEST_ALL_PERMISSIONS
+    permissionRequestCode = PluginRequestCodes.FILESYSTEM_REQUEST_ALL_PERMISSIONS,
+    lane = PluginExecutor.LANE_IO
 )
 public class Filesystem extends Plugin {
 
   private static final String PERMISSION_DENIED_ERROR = "Unable to do file operation, user denied permission request";
 
+  private static final String EVENT_READ_STREAM_CHUNK = "readStreamChunk";
+  private static final String EVENT_READ_STREAM_END = "readStreamEnd";
+  private static final String EVENT_READ_STREAM_ERROR = "readStreamError";
+  private static final int DEFAULT_STREAM_CHUNK_SIZE = 256 * 1024;
+  private static final int MAX_STREAM_CHUNK_SIZE = 8 * 1024 * 1024;
+  private static final int DEFAULT_STREAM_WINDOW = 4;
+
+  private static final long WRITE_STREAM_IDLE_TIMEOUT_MS = 60 * 1000;
+  private static final String EVENT_COPY_PROGRESS = "copyProgress";
+  private static final String EVENT_RMDIR_COMPLETE = "rmdirComplete";
+  private static final int WORKER_THREADS = 4;
+  private static final int DEFAULT_WALK_PAGE_SIZE = 1000;
+  private static final int MAX_OPEN_WALKS = 16;
+  private static final String[] DIRECTORIES = { "DOCUMENTS", "DATA", "CACHE", "EXTERNAL", "EXTERNAL_STORAGE" };
+
+  private final Map<String, ReadStream> readStreams = new ConcurrentHashMap<>();
+  private final Map<String, WriteStream> writeStreams = new ConcurrentHashMap<>();
+  private final Map<String, ChunkedFile> chunkedFiles = new ConcurrentHashMap<>();
+  private final Map<String, CopyTask> copies = new ConcurrentHashMap<>();
+  // Unfinished walks by cursor, the oldest is dropped when too many are left unfinished
+  private final Map<String, DirectoryWalker> walks = Collections.synchronizedMap(new LinkedHashMap<String, DirectoryWalker>() {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, DirectoryWalker> eldest) {
+      return size() > MAX_OPEN_WALKS;
+    }
+  });
+  // Calls of unordered methods waiting for a permission prompt, by request code. They run at
+  // the same time as other calls, so they can't share the single saved call.
+  private final Map<Integer, List<PluginCall>> pendingPermissionCalls = new HashMap<>();
+  // Runs the parallel parts of copies and hashes
+  private ThreadPoolExecutor workerPool;
+  private final AtomicInteger nextStreamId = new AtomicInteger();
+  // Only times the eviction, the streams are closed on the worker pool
+  private final Handler evictionHandler = new Handler(Looper.getMainLooper());
+  private final Runnable evictIdleWriteStreams = new Runnable() {
+    @Override
+    public void run() {
+      long now = System.nanoTime();
+      for (WriteStream stream : writeStreams.values()) {
+        if (stream.closeIfIdle(now, TimeUnit.MILLISECONDS.toNanos(WRITE_STREAM_IDLE_TIMEOUT_MS))) {
+          Logger.debug(getLogTag(), "Closed idle write stream " + stream.getId());
+          writeStreams.remove(stream.getId(), stream);
+        }
+      }
+      scheduleWriteStreamEviction();
+    }
+  };
+  private final Runnable postWriteStreamEviction = new Runnable() {
+    @Override
+    public void run() {
+      getWorkerExecutor().execute(evictIdleWriteStreams);
+    }
+  };
+
+  @Override
+  public void load() {
+    // Sweep the trees a previous run was deleting in the background when it died
+    getWorkerExecutor().execute(new Runnable() {
+      @Override
+      public void run() {
+        boolean canWritePublic = hasPermission(Manifest.permission.WRITE_EXTERNAL_STORAGE);
+        for (String directory : DIRECTORIES) {
+          File root = getDirectory(directory);
+          if (root == null || (isPublicDirectory(directory) && !canWritePublic)) {
+            continue;
+          }
+          try {
+            TreeDeleter.emptyTrash(root);
+          } catch (IOException ex) {
+            Logger.error(getLogTag(), "Unable to empty the trash of " + root.getPath(), ex);
+          }
+        }
+      }
+    });
+  }
+
   private Charset getEncoding(String encoding) {
     if (encoding == null) {
       return null;
@@ -70,7 +182,10 @@ public class Filesystem extends Plugin {
   }
 
   private File getDirectory(String directory) {
-    Context c = bridge.getContext();
+    return getDirectory(bridge.getContext(), directory);
+  }
+
+  static File getDirectory(Context c, String directory) {
     switch(directory) {
       case "DOCUMENTS":
         return Environment.getExternalStoragePublicDirectory(Environment.DIRECTORY_DOCUMENTS);
@@ -86,6 +201,23 @@ public class Filesystem extends Plugin {
     return null;
   }
 
+  /**
+   * Resolve a path relative to one of the plugin's directories, or a file URI when no
+   * directory is given, without creating anything
+   * @return the file, or null for unknown directories and non-file URIs
+   */
+  static File resolveFile(Context c, String path, String directory) {
+    if (directory == null) {
+      Uri u = Uri.parse(path);
+      if (u.getScheme() == null || u.getScheme().equals("file")) {
+        return new File(u.getPath());
+      }
+      return null;
+    }
+    File androidDirectory = getDirectory(c, directory);
+    return androidDirectory == null ? null : new File(androidDirectory, path);
+  }
+
   private File getFileObject(String path, String directory) {
     if (directory == null) {
       Uri u = Uri.parse(path);
@@ -126,32 +258,99 @@ public class Filesystem extends Plugin {
     return new FileInputStream(new File(androidDirectory, path));
   }
 
-  private String readFileAsString(InputStream is, String encoding) throws IOException {
-    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-
-    byte[] buffer = new byte[1024];
-    int length = 0;
+  /**
+   * Open a seekable stream on a file or content URI, or null if the content provider can
+   * only stream the data
+   */
+  private FileInputStream getSeekableInputStream(String path, String directory) throws IOException {
+    if (directory == null) {
+      Uri u = Uri.parse(path);
+      if (u.getScheme() != null && u.getScheme().equals("content")) {
+        ParcelFileDescriptor pfd;
+        try {
+          pfd = getContext().getContentResolver().openFileDescriptor(u, "r");
+        } catch (FileNotFoundException ex) {
+          return null;
+        }
+        if (pfd == null) {
+          return null;
+        }
+        if (pfd.getStatSize() < 0) {
+          // A pipe or socket, it has no size and can't be read positionally
+          pfd.close();
+          return null;
+        }
+        return new ParcelFileDescriptor.AutoCloseInputStream(pfd);
+      }
+    }
+    return (FileInputStream) getInputStream(path, directory);
+  }
 
-    while ((length = is.read(buffer)) != -1) {
-      outputStream.write(buffer, 0, length);
-    };
+  /**
+   * Read <code>length</code> bytes of a file starting at <code>offset</code>, or up to the end
+   * of the file if length is null. Only the requested window is read and held in memory.
+   */
+  private byte[] readFileRange(String path, String directory, long offset, Long length) throws IOException {
+    FileInputStream fis = getSeekableInputStream(path, directory);
+    if (fis == null) {
+      InputStream is = getInputStream(path, directory);
+      try {
+        return readStreamRange(is, offset, length);
+      } finally {
+        is.close();
+      }
+    }
 
-    return outputStream.toString(encoding);
+    try {
+      FileChannel channel = fis.getChannel();
+      long size = channel.size();
+      long start = Math.min(offset, size);
+      long count = length == null ? size - start : Math.min(length, size - start);
+      ByteBuffer buffer = ByteBuffer.allocate(checkRangeLength(count));
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, start + buffer.position()) == -1) {
+          break;
+        }
+      }
+      byte[] bytes = buffer.array();
+      return buffer.position() == bytes.length ? bytes : Arrays.copyOf(bytes, buffer.position());
+    } finally {
+      fis.close();
+    }
   }
 
-  private String readFileAsBase64EncodedData(InputStream is) throws IOException {
-    FileInputStream fileInputStreamReader = (FileInputStream) is;
-    ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-
-    byte[] buffer = new byte[1024];
+  private byte[] readStreamRange(InputStream is, long offset, Long length) throws IOException {
+    long skipped = 0;
+    while (skipped < offset) {
+      long n = is.skip(offset - skipped);
+      if (n <= 0) {
+        if (is.read() == -1) {
+          return new byte[0];
+        }
+        n = 1;
+      }
+      skipped += n;
+    }
 
-    int c;
-    while ((c = fileInputStreamReader.read(buffer)) != -1) {
-      byteStream.write(buffer, 0, c);
+    long remaining = length == null ? Long.MAX_VALUE : length;
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream(length == null ? 8192 : checkRangeLength(length));
+    byte[] buffer = new byte[8192];
+    int read;
+    while (remaining > 0 && (read = is.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+      outputStream.write(buffer, 0, read);
+      remaining -= read;
     }
-    fileInputStreamReader.close();
+    if (outputStream.size() > Integer.MAX_VALUE - 8) {
+      throw new IOException("Range too large to read at once, pass a smaller length");
+    }
+    return outputStream.toByteArray();
+  }
 
-    return new String(Base64.encodeToString(byteStream.toByteArray(), Base64.NO_WRAP));
+  private static int checkRangeLength(long length) throws IOException {
+    if (length > Integer.MAX_VALUE - 8) {
+      throw new IOException("Range too large to read at once, pass a smaller length");
+    }
+    return (int) length;
   }
 
   @PluginMethod()
@@ -161,6 +360,8 @@ public class Filesystem extends Plugin {
     String data = call.getString("data");
     String directory = getDirectoryParameter(call);
     String encoding = call.getString("encoding");
+    Long offset = call.getLong("offset", 0L);
+    Long length = call.getLong("length");
 
     Charset charset = this.getEncoding(encoding);
     if(encoding != null && charset == null) {
@@ -168,15 +369,20 @@ public class Filesystem extends Plugin {
       return;
     }
 
+    if (offset < 0 || (length != null && length < 0)) {
+      call.error("offset and length must not be negative");
+      return;
+    }
+
     if (!isPublicDirectory(directory)
         || isStoragePermissionGranted(PluginRequestCodes.FILESYSTEM_REQUEST_READ_FILE_PERMISSIONS, Manifest.permission.READ_EXTERNAL_STORAGE)) {
         try {
-          InputStream is = getInputStream(file, directory);
+          byte[] bytes = readFileRange(file, directory, offset, length);
           String dataStr;
           if (charset != null) {
-            dataStr = readFileAsString(is, charset.name());
+            dataStr = new String(bytes, charset);
           } else {
-            dataStr = readFileAsBase64EncodedData(is);
+            dataStr = Base64.encodeToString(bytes, Base64.NO_WRAP);
           }
 
           JSObject ret = new JSObject();
@@ -192,6 +398,439 @@ public class Filesystem extends Plugin {
     }
   }
 
+  /**
+   * Start reading a file in chunks. Chunks are sent as readStreamChunk events while the
+   * stream has credit, the <code>window</code> option is the initial credit. Each chunk
+   * acknowledged with ackReadStream allows one more to be read.
+   */
+  @PluginMethod()
+  public void openReadStream(PluginCall call) {
+    saveCall(call);
+    String file = call.getString("path");
+    String directory = getDirectoryParameter(call);
+    Long offset = call.getLong("offset", 0L);
+    Long length = call.getLong("length");
+    int chunkSize = call.getInt("chunkSize", DEFAULT_STREAM_CHUNK_SIZE);
+    int window = call.getInt("window", DEFAULT_STREAM_WINDOW);
+
+    if (offset < 0 || (length != null && length < 0)) {
+      call.error("offset and length must not be negative");
+      return;
+    }
+    if (chunkSize <= 0 || chunkSize > MAX_STREAM_CHUNK_SIZE) {
+      call.error("chunkSize must be between 1 and " + MAX_STREAM_CHUNK_SIZE);
+      return;
+    }
+    if (window <= 0) {
+      call.error("window must be at least 1");
+      return;
+    }
+
+    if (!isPublicDirectory(directory)
+        || isStoragePermissionGranted(PluginRequestCodes.FILESYSTEM_REQUEST_READ_STREAM_PERMISSIONS, Manifest.permission.READ_EXTERNAL_STORAGE)) {
+      try {
+        String streamId = "read-" + nextStreamId.incrementAndGet();
+        FileInputStream fis = getSeekableInputStream(file, directory);
+        ReadStream stream;
+        if (fis != null) {
+          stream = new ReadStream(streamId, fis, fis.getChannel(), offset, length, chunkSize, window);
+        } else {
+          stream = new ReadStream(streamId, getInputStream(file, directory), null, offset, length, chunkSize, window);
+        }
+        readStreams.put(streamId, stream);
+
+        JSObject ret = new JSObject();
+        ret.put("streamId", streamId);
+        ret.put("size", stream.getSize());
+        call.success(ret);
+
+        pumpReadStream(stream);
+      } catch (FileNotFoundException ex) {
+        call.error("File does not exist", ex);
+      } catch (IOException ex) {
+        call.error("Unable to read file", ex);
+      }
+    }
+  }
+
+  /**
+   * Acknowledge chunks of a read stream, allowing as many more to be read
+   */
+  @PluginMethod()
+  public void ackReadStream(PluginCall call) {
+    String streamId = call.getString("streamId");
+    int count = call.getInt("count", 1);
+    if (count <= 0) {
+      call.error("count must be positive");
+      return;
+    }
+    ReadStream stream = streamId == null ? null : readStreams.get(streamId);
+    if (stream == null) {
+      call.error("Unknown read stream: " + streamId);
+      return;
+    }
+
+    stream.grant(count);
+    call.success();
+    pumpReadStream(stream);
+  }
+
+  @PluginMethod()
+  public void closeReadStream(PluginCall call) {
+    String streamId = call.getString("streamId");
+    ReadStream stream = streamId == null ? null : readStreams.remove(streamId);
+    if (stream != null) {
+      closeQuietly(stream);
+    }
+    call.success();
+  }
+
+  /**
+   * Send chunks until the stream runs out of credit or data
+   */
+  private void pumpReadStream(ReadStream stream) {
+    String streamId = stream.getId();
+    try {
+      while (stream.hasCredit()) {
+        long chunkOffset = stream.getPosition();
+        int sequence = stream.getSequence();
+        byte[] chunk = stream.readChunk();
+        if (chunk == null) {
+          return;
+        }
+        if (chunk.length > 0) {
+          JSObject data = new JSObject();
+          data.put("streamId", streamId);
+          data.put("sequence", sequence);
+          data.put("offset", chunkOffset);
+          data.put("data", Base64.encodeToString(chunk, Base64.NO_WRAP));
+          notifyListeners(EVENT_READ_STREAM_CHUNK, data);
+        }
+      }
+      if (stream.isFinished() && readStreams.remove(streamId) != null) {
+        closeQuietly(stream);
+        JSObject data = new JSObject();
+        data.put("streamId", streamId);
+        notifyListeners(EVENT_READ_STREAM_END, data);
+      }
+    } catch (IOException ex) {
+      Logger.error(getLogTag(), "Unable to read stream " + streamId, ex);
+      readStreams.remove(streamId);
+      closeQuietly(stream);
+      JSObject data = new JSObject();
+      data.put("streamId", streamId);
+      data.put("message", ex.getMessage());
+      notifyListeners(EVENT_READ_STREAM_ERROR, data);
+    }
+  }
+
+  private void closeQuietly(Closeable closeable) {
+    try {
+      closeable.close();
+    } catch (IOException ex) {
+      Logger.error(getLogTag(), "Unable to close stream", ex);
+    }
+  }
+
+  /**
+   * Open a file for a series of writes. The file stays open until closeWriteStream is called,
+   * or until it hasn't been written to for a minute.
+   */
+  @PluginMethod()
+  public void openWriteStream(PluginCall call) {
+    saveCall(call);
+    String path = call.getString("path");
+    boolean recursive = call.getBoolean("recursive", false);
+    boolean append = call.getBoolean("append", false);
+
+    if (path == null) {
+      Logger.error(getLogTag(), "No path or filename retrieved from call", null);
+      call.error("NO_PATH");
+      return;
+    }
+
+    File file = getWritableFile(call, path, getDirectoryParameter(call), recursive, PluginRequestCodes.FILESYSTEM_REQUEST_WRITE_STREAM_PERMISSIONS);
+    if (file == null) {
+      return;
+    }
+
+    try {
+      String streamId = "write-" + nextStreamId.incrementAndGet();
+      WriteStream stream = new WriteStream(streamId, file, append);
+      boolean first = writeStreams.isEmpty();
+      writeStreams.put(streamId, stream);
+      if (first) {
+        scheduleWriteStreamEviction();
+      }
+
+      JSObject ret = new JSObject();
+      ret.put("streamId", streamId);
+      ret.put("uri", Uri.fromFile(file).toString());
+      call.success(ret);
+    } catch (IOException ex) {
+      Logger.error(getLogTag(), "Opening '" + file.getPath() + "' for writing failed. Error: " + ex.getMessage(), ex);
+      call.error("FILE_NOTCREATED", ex);
+    }
+  }
+
+  /**
+   * Write to an open stream, after the previous write or at <code>position</code>
+   */
+  @PluginMethod()
+  public void writeStream(PluginCall call) {
+    String streamId = call.getString("streamId");
+    String data = call.getString("data");
+    String encoding = call.getString("encoding");
+    Long position = call.getLong("position");
+
+    WriteStream stream = streamId == null ? null : writeStreams.get(streamId);
+    if (stream == null) {
+      call.error("Unknown write stream: " + streamId);
+      return;
+    }
+    if (data == null) {
+      call.error("NO_DATA");
+      return;
+    }
+    if (position != null && position < 0) {
+      call.error("position must not be negative");
+      return;
+    }
+
+    Charset charset = this.getEncoding(encoding);
+    if (encoding != null && charset == null) {
+      call.error("Unsupported encoding provided: " + encoding);
+      return;
+    }
+
+    try {
+      byte[] bytes = decodeData(data, charset);
+      long writtenAt;
+      if (position != null) {
+        stream.write(bytes, position);
+        writtenAt = position;
+      } else {
+        writtenAt = stream.write(bytes);
+      }
+      JSObject ret = new JSObject();
+      ret.put("position", writtenAt);
+      ret.put("bytesWritten", bytes.length);
+      call.success(ret);
+    } catch (IllegalArgumentException ex) {
+      call.error("Invalid base64 data", ex);
+    } catch (ClosedChannelException ex) {
+      // Closed as idle after it was looked up
+      call.error("Unknown write stream: " + streamId);
+    } catch (IOException ex) {
+      call.error("Unable to write to stream", ex);
+    }
+  }
+
+  @PluginMethod()
+  public void closeWriteStream(PluginCall call) {
+    String streamId = call.getString("streamId");
+    boolean sync = call.getBoolean("sync", false);
+
+    WriteStream stream = streamId == null ? null : writeStreams.remove(streamId);
+    if (stream == null) {
+      call.error("Unknown write stream: " + streamId);
+      return;
+    }
+
+    File file = stream.getFile();
+    try {
+      long size = stream.size();
+      stream.close(sync);
+      if (file.getAbsolutePath().startsWith(Environment.getExternalStorageDirectory().getAbsolutePath())) {
+        MediaScannerConnection.scanFile(getContext(), new String[] {file.getAbsolutePath()}, null, null);
+      }
+      JSObject ret = new JSObject();
+      ret.put("uri", Uri.fromFile(file).toString());
+      ret.put("size", size);
+      call.success(ret);
+    } catch (ClosedChannelException ex) {
+      call.error("Unknown write stream: " + streamId);
+    } catch (IOException ex) {
+      closeQuietly(stream);
+      call.error("Unable to close stream", ex);
+    }
+  }
+
+  /**
+   * Preallocate a file of <code>size</code> bytes to be written in chunks of
+   * <code>chunkSize</code>, in any order. Opening a file whose assembly was interrupted, with
+   * the same size and chunk size, resumes it: the completed chunks are returned.
+   */
+  @PluginMethod()
+  public void openChunkedFile(PluginCall call) {
+    saveCall(call);
+    String path = call.getString("path");
+    boolean recursive = call.getBoolean("recursive", false);
+    Long size = call.getLong("size");
+    Integer chunkSize = call.getInt("chunkSize");
+
+    if (path == null) {
+      Logger.error(getLogTag(), "No path or filename retrieved from call", null);
+      call.error("NO_PATH");
+      return;
+    }
+    if (size == null || size < 0 || chunkSize == null || chunkSize <= 0) {
+      call.error("size and chunkSize are required, and chunkSize must be positive");
+      return;
+    }
+
+    File file = getWritableFile(call, path, getDirectoryParameter(call), recursive, PluginRequestCodes.FILESYSTEM_REQUEST_CHUNKED_FILE_PERMISSIONS);
+    if (file == null) {
+      return;
+    }
+
+    try {
+      String streamId = "chunked-" + nextStreamId.incrementAndGet();
+      ChunkedFile chunkedFile = new ChunkedFile(streamId, file, size, chunkSize);
+      chunkedFiles.put(streamId, chunkedFile);
+
+      JSObject ret = getChunkedFileStatus(chunkedFile);
+      ret.put("streamId", streamId);
+      ret.put("uri", Uri.fromFile(file).toString());
+      ret.put("chunkCount", chunkedFile.getChunkCount());
+      ret.put("resumed", chunkedFile.isResumed());
+      call.success(ret);
+    } catch (IllegalArgumentException ex) {
+      call.error(ex.getMessage());
+    } catch (IOException ex) {
+      Logger.error(getLogTag(), "Preallocating '" + file.getPath() + "' failed. Error: " + ex.getMessage(), ex);
+      call.error("FILE_NOTCREATED", ex);
+    }
+  }
+
+  /**
+   * Write one chunk of a chunked file. Calls don't wait for each other, so several chunks
+   * are written at once on the io lane.
+   */
+  @PluginMethod(ordered = false)
+  public void writeChunk(PluginCall call) {
+    String streamId = call.getString("streamId");
+    Integer index = call.getInt("index");
+    String data = call.getString("data");
+
+    ChunkedFile chunkedFile = streamId == null ? null : chunkedFiles.get(streamId);
+    if (chunkedFile == null) {
+      call.error("Unknown chunked file: " + streamId);
+      return;
+    }
+    if (index == null || data == null) {
+      call.error("index and data are required");
+      return;
+    }
+
+    try {
+      chunkedFile.writeChunk(index, decodeData(data, null));
+      JSObject ret = new JSObject();
+      ret.put("complete", chunkedFile.isComplete());
+      call.success(ret);
+    } catch (IllegalArgumentException ex) {
+      call.error(ex.getMessage());
+    } catch (IOException ex) {
+      call.error("Unable to write chunk", ex);
+    }
+  }
+
+  @PluginMethod()
+  public void getChunkedFileStatus(PluginCall call) {
+    String streamId = call.getString("streamId");
+    ChunkedFile chunkedFile = streamId == null ? null : chunkedFiles.get(streamId);
+    if (chunkedFile == null) {
+      call.error("Unknown chunked file: " + streamId);
+      return;
+    }
+    call.success(getChunkedFileStatus(chunkedFile));
+  }
+
+  /**
+   * Close a chunked file. Its bitmap is kept for a later resume unless every chunk was written.
+   */
+  @PluginMethod()
+  public void closeChunkedFile(PluginCall call) {
+    String streamId = call.getString("streamId");
+    boolean sync = call.getBoolean("sync", false);
+    ChunkedFile chunkedFile = streamId == null ? null : chunkedFiles.remove(streamId);
+    if (chunkedFile == null) {
+      call.error("Unknown chunked file: " + streamId);
+      return;
+    }
+
+    try {
+      chunkedFile.close(sync);
+      JSObject ret = new JSObject();
+      ret.put("uri", Uri.fromFile(chunkedFile.getFile()).toString());
+      ret.put("complete", chunkedFile.isComplete());
+      call.success(ret);
+    } catch (IOException ex) {
+      call.error("Unable to close chunked file", ex);
+    }
+  }
+
+  private JSObject getChunkedFileStatus(ChunkedFile chunkedFile) {
+    JSArray completed = new JSArray();
+    for (int[] range : chunkedFile.getCompletedRanges()) {
+      JSObject item = new JSObject();
+      item.put("start", range[0]);
+      item.put("end", range[1]);
+      completed.put(item);
+    }
+    JSObject ret = new JSObject();
+    ret.put("complete", chunkedFile.isComplete());
+    ret.put("completed", completed);
+    return ret;
+  }
+
+  private void scheduleWriteStreamEviction() {
+    evictionHandler.removeCallbacks(postWriteStreamEviction);
+    if (!writeStreams.isEmpty()) {
+      evictionHandler.postDelayed(postWriteStreamEviction, WRITE_STREAM_IDLE_TIMEOUT_MS / 2);
+    }
+  }
+
+  private byte[] decodeData(String data, Charset charset) {
+    if (charset != null) {
+      return data.getBytes(charset);
+    }
+    //remove header from dataURL
+    if (data.indexOf(",") != -1) {
+      data = data.split(",")[1];
+    }
+    return Base64.decode(data, Base64.NO_WRAP);
+  }
+
+  @Override
+  protected void handleOnDestroy() {
+    for (ReadStream stream : readStreams.values()) {
+      closeQuietly(stream);
+    }
+    readStreams.clear();
+
+    evictionHandler.removeCallbacks(postWriteStreamEviction);
+    for (WriteStream stream : writeStreams.values()) {
+      closeQuietly(stream);
+    }
+    writeStreams.clear();
+
+    for (ChunkedFile chunkedFile : chunkedFiles.values()) {
+      closeQuietly(chunkedFile);
+    }
+    chunkedFiles.clear();
+
+    for (CopyTask task : copies.values()) {
+      task.cancel();
+    }
+    synchronized (this) {
+      if (workerPool != null) {
+        workerPool.shutdown();
+        workerPool = null;
+      }
+    }
+  }
+
   @PluginMethod()
   public void writeFile(PluginCall call) {
     saveCall(call);
@@ -211,10 +850,20 @@ public class Filesystem extends Plugin {
       return;
     }
 
-    String directory = getDirectoryParameter(call);
+    File fileObject = getWritableFile(call, path, getDirectoryParameter(call), recursive, PluginRequestCodes.FILESYSTEM_REQUEST_WRITE_FILE_PERMISSIONS);
+    if (fileObject != null) {
+      saveFile(call, fileObject, data);
+    }
+  }
+
+  /**
+   * Resolve the file a write call targets, creating its directories as needed.
+   * @return the file, or null if the call was rejected or is waiting for a permission
+   */
+  private File getWritableFile(PluginCall call, String path, String directory, boolean recursive, int permissionRequestCode) {
     if (directory != null) {
       if (!isPublicDirectory(directory)
-        || isStoragePermissionGranted(PluginRequestCodes.FILESYSTEM_REQUEST_WRITE_FILE_PERMISSIONS, Manifest.permission.WRITE_EXTERNAL_STORAGE)) {
+        || isStoragePermissionGranted(permissionRequestCode, Manifest.permission.WRITE_EXTERNAL_STORAGE)) {
         // create directory because it might not exist
         File androidDir = getDirectory(directory);
         if (androidDir != null) {
@@ -222,7 +871,7 @@ public class Filesystem extends Plugin {
             // path might include directories as well
             File fileObject = new File(androidDir, path);
             if (fileObject.getParentFile().exists() || (recursive && fileObject.getParentFile().mkdirs())) {
-              saveFile(call, fileObject, data);
+              return fileObject;
             } else {
               call.error("Parent folder doesn't exist");
             }
@@ -242,15 +891,16 @@ public class Filesystem extends Plugin {
         File fileObject = new File(u.getPath());
         // do not know where the file is being store so checking the permission to be secure
         // TODO to prevent permission checking we need a property from the call
-        if (isStoragePermissionGranted(PluginRequestCodes.FILESYSTEM_REQUEST_WRITE_FILE_PERMISSIONS, Manifest.permission.WRITE_EXTERNAL_STORAGE)) {
+        if (isStoragePermissionGranted(permissionRequestCode, Manifest.permission.WRITE_EXTERNAL_STORAGE)) {
           if (fileObject.getParentFile().exists() || (recursive && fileObject.getParentFile().mkdirs())) {
-            saveFile(call, fileObject, data);
+            return fileObject;
           } else {
             call.error("Parent folder doesn't exist");
           }
         }
       }
     }
+    return null;
   }
 
   private void saveFile(PluginCall call, File file, String data) {
@@ -369,6 +1019,7 @@ public class Filesystem extends Plugin {
     String path = call.getString("path");
     String directory = getDirectoryParameter(call);
     Boolean recursive = call.getBoolean("recursive", false);
+    boolean background = call.getBoolean("background", false);
 
     File fileObject = getFileObject(path, directory);
 
@@ -384,19 +1035,96 @@ public class Filesystem extends Plugin {
         return;
       }
 
-      boolean deleted = false;
+      if (background) {
+        deleteInBackground(call, path, fileObject);
+        return;
+      }
 
       try {
-        deleteRecursively(fileObject);
-        deleted = true;
-      } catch (IOException ignored) {
+        JSObject ret = new JSObject();
+        ret.put("removed", deleteRecursively(fileObject));
+        call.success(ret);
+      } catch (IOException ex) {
+        Logger.error(getLogTag(), "Unable to delete directory", ex);
+        call.error("Unable to delete directory, unknown reason");
       }
+    }
+  }
 
-      if(deleted == false) {
+  /**
+   * Move the directory to the trash of the plugin directory it's in so it's gone at once,
+   * resolve the call, then delete it on the worker pool and send an rmdirComplete event with
+   * the number of entries removed. Outside the plugin directories it's deleted in place
+   * before the call resolves.
+   */
+  private void deleteInBackground(PluginCall call, final String path, File fileObject) {
+    File trashRoot = getTrashRoot(fileObject);
+    File moved = null;
+    if (trashRoot != null) {
+      try {
+        moved = TreeDeleter.tombstone(fileObject, trashRoot);
+      } catch (IOException ex) {
+        Logger.error(getLogTag(), "Unable to move " + fileObject.getPath() + " to the trash", ex);
+      }
+    }
+    if (moved == null) {
+      JSObject data = new JSObject();
+      data.put("path", path);
+      try {
+        data.put("removed", deleteRecursively(fileObject));
+      } catch (IOException ex) {
+        Logger.error(getLogTag(), "Unable to delete directory", ex);
         call.error("Unable to delete directory, unknown reason");
-      } else {
-        call.success();
+        return;
       }
+      call.success();
+      notifyListeners(EVENT_RMDIR_COMPLETE, data);
+      return;
+    }
+    final File tombstone = moved;
+    call.success();
+
+    getWorkerExecutor().execute(new Runnable() {
+      @Override
+      public void run() {
+        JSObject data = new JSObject();
+        data.put("path", path);
+        try {
+          data.put("removed", TreeDeleter.delete(tombstone));
+        } catch (IOException ex) {
+          Logger.error(getLogTag(), "Unable to delete " + tombstone.getPath(), ex);
+          data.put("error", ex.getMessage());
+        }
+        notifyListeners(EVENT_RMDIR_COMPLETE, data);
+      }
+    });
+  }
+
+  /**
+   * The innermost plugin directory that contains the file, whose trash is on the same volume
+   */
+  private File getTrashRoot(File file) {
+    String path = canonical(file).getPath();
+    File trashRoot = null;
+    for (String directory : DIRECTORIES) {
+      File root = getDirectory(directory);
+      if (root == null) {
+        continue;
+      }
+      String rootPath = canonical(root).getPath();
+      if (path.startsWith(rootPath + File.separator)
+          && (trashRoot == null || rootPath.length() > trashRoot.getPath().length())) {
+        trashRoot = canonical(root);
+      }
+    }
+    return trashRoot;
+  }
+
+  private static File canonical(File file) {
+    try {
+      return file.getCanonicalFile();
+    } catch (IOException ex) {
+      return file.getAbsoluteFile();
     }
   }
 
@@ -411,7 +1139,7 @@ public class Filesystem extends Plugin {
      if (!isPublicDirectory(directory)
          || isStoragePermissionGranted(PluginRequestCodes.FILESYSTEM_REQUEST_READ_FOLDER_PERMISSIONS, Manifest.permission.READ_EXTERNAL_STORAGE)) {
       if (fileObject != null && fileObject.exists()) {
-        String[] files = fileObject.list();
+        String[] files = fileObject.list(TreeDeleter.NOT_TRASH);
         if (files != null) {
           JSObject ret = new JSObject();
           ret.put("files", JSArray.from(files));
@@ -425,6 +1153,78 @@ public class Filesystem extends Plugin {
     }
   }
 
+  /**
+   * List a directory tree with the type, size and mtime of every entry, depth first, in
+   * pages of <code>pageSize</code> entries. While there are more entries the result has a
+   * <code>cursor</code>; pass it back to get the next page.
+   */
+  @PluginMethod()
+  public void walk(PluginCall call) {
+    String cursor = call.getString("cursor");
+    int pageSize = call.getInt("pageSize", DEFAULT_WALK_PAGE_SIZE);
+    if (pageSize <= 0) {
+      call.error("pageSize must be positive");
+      return;
+    }
+
+    DirectoryWalker walker;
+    if (cursor != null) {
+      walker = walks.remove(cursor);
+      if (walker == null) {
+        call.error("Unknown or expired cursor: " + cursor);
+        return;
+      }
+    } else {
+      saveCall(call);
+      String path = call.getString("path", "");
+      String directory = getDirectoryParameter(call);
+      int maxDepth = call.getInt("maxDepth", Integer.MAX_VALUE);
+      if (maxDepth <= 0) {
+        call.error("maxDepth must be positive");
+        return;
+      }
+
+      if (isPublicDirectory(directory)
+          && !isStoragePermissionGranted(PluginRequestCodes.FILESYSTEM_REQUEST_WALK_PERMISSIONS, Manifest.permission.READ_EXTERNAL_STORAGE)) {
+        return;
+      }
+      File fileObject = getFileObject(path, directory);
+      if (fileObject == null || !fileObject.isDirectory()) {
+        call.error("Directory does not exist");
+        return;
+      }
+      try {
+        walker = new DirectoryWalker(fileObject, maxDepth);
+      } catch (IOException ex) {
+        call.error("Unable to read directory", ex);
+        return;
+      }
+    }
+
+    JSArray entries = new JSArray();
+    for (DirectoryWalker.Entry entry : walker.next(pageSize)) {
+      JSObject item = new JSObject();
+      item.put("path", entry.getPath());
+      item.put("name", entry.getFile().getName());
+      item.put("type", entry.isDirectory() ? "directory" : "file");
+      item.put("size", entry.getSize());
+      item.put("mtime", entry.getMtime());
+      item.put("depth", entry.getDepth());
+      entries.put(item);
+    }
+
+    JSObject ret = new JSObject();
+    ret.put("entries", entries);
+    if (walker.isDone()) {
+      ret.put("cursor", JSObject.NULL);
+    } else {
+      String next = "walk-" + nextStreamId.incrementAndGet();
+      walks.put(next, walker);
+      ret.put("cursor", next);
+    }
+    call.success(ret);
+  }
+
   @PluginMethod()
   public void getUri(PluginCall call) {
     saveCall(call);
@@ -470,59 +1270,71 @@ public class Filesystem extends Plugin {
    * Helper function to recursively delete a directory
    *
    * @param file The file or directory to recursively delete
+   * @return the number of entries removed
    * @throws IOException
    */
-  private static void deleteRecursively(File file) throws IOException {
-    if (file.isFile()) {
-      file.delete();
-      return;
-    }
-
-    for (File f : file.listFiles()) {
-      deleteRecursively(f);
-    }
-
-    file.delete();
+  private static long deleteRecursively(File file) throws IOException {
+    return TreeDeleter.delete(file);
   }
 
   /**
-   * Helper function to recursively copy a directory structure (or just a file)
+   * Copy a file or directory tree, reporting progress as copyProgress events. The copy can
+   * be cancelled with cancelCopy while it runs.
    *
-   * @param src The source location
-   * @param dst The destination location
-   * @throws IOException
+   * @param copyId the id progress events carry and cancelCopy takes
    */
-  private static void copyRecursively(File src, File dst) throws IOException {
-    if (src.isDirectory()) {
-      dst.mkdir();
-
-      for (String file : src.list()) {
-        copyRecursively(new File(src, file), new File(dst, file));
+  private void copyRecursively(File src, File dst, final String copyId) throws IOException {
+    CopyTask task = new CopyTask(src, dst, getWorkerExecutor(), new CopyTask.ProgressListener() {
+      @Override
+      public void onProgress(long bytesCopied, long totalBytes, int filesCopied, int totalFiles) {
+        if (!hasListeners(EVENT_COPY_PROGRESS)) {
+          return;
+        }
+        JSObject data = new JSObject();
+        data.put("copyId", copyId);
+        data.put("bytesCopied", bytesCopied);
+        data.put("totalBytes", totalBytes);
+        data.put("filesCopied", filesCopied);
+        data.put("totalFiles", totalFiles);
+        if (bytesCopied == totalBytes && filesCopied == totalFiles) {
+          // The final event is never collapsed
+          notifyListeners(EVENT_COPY_PROGRESS, data);
+        } else {
+          notifyProgressListeners(EVENT_COPY_PROGRESS, data, copyId);
+        }
       }
+    });
 
-      return;
+    copies.put(copyId, task);
+    try {
+      task.run();
+    } finally {
+      copies.remove(copyId);
     }
+  }
 
-    if (!dst.getParentFile().exists()) {
-      dst.getParentFile().mkdirs();
-    }
+  private synchronized Executor getWorkerExecutor() {
+    if (workerPool == null) {
+      workerPool = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS, 30, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
 
-    if (!dst.exists()) {
-      dst.createNewFile();
-    }
-
-    try (FileChannel source = new FileInputStream(src).getChannel(); FileChannel destination = new FileOutputStream(dst).getChannel()) {
-      destination.transferFrom(source, 0, source.size());
+        @Override
+        public Thread newThread(Runnable r) {
+          return new Thread(r, "CapacitorFilesystem-worker-" + count.incrementAndGet());
+        }
+      });
+      workerPool.allowCoreThreadTimeOut(true);
     }
+    return workerPool;
   }
 
   private void _copy(PluginCall call, boolean doRename) {
-    saveCall(call);
-
     String from = call.getString("from");
     String to = call.getString("to");
     String directory = call.getString("directory");
     String toDirectory = call.getString("toDirectory");
+    String copyId = call.getString("copyId", call.getCallbackId());
 
     if (toDirectory == null) {
       toDirectory = directory;
@@ -561,11 +1373,11 @@ public class Filesystem extends Plugin {
 
     if (isPublicDirectory(directory) || isPublicDirectory(toDirectory)) {
       if (doRename) {
-        if (!isStoragePermissionGranted(PluginRequestCodes.FILESYSTEM_REQUEST_RENAME_PERMISSIONS, Manifest.permission.WRITE_EXTERNAL_STORAGE)) {
+        if (!isStoragePermissionGranted(call, PluginRequestCodes.FILESYSTEM_REQUEST_RENAME_PERMISSIONS, Manifest.permission.WRITE_EXTERNAL_STORAGE)) {
           return;
         }
       } else {
-        if (!isStoragePermissionGranted(PluginRequestCodes.FILESYSTEM_REQUEST_COPY_PERMISSIONS, Manifest.permission.WRITE_EXTERNAL_STORAGE)) {
+        if (!isStoragePermissionGranted(call, PluginRequestCodes.FILESYSTEM_REQUEST_COPY_PERMISSIONS, Manifest.permission.WRITE_EXTERNAL_STORAGE)) {
           return;
         }
       }
@@ -580,17 +1392,26 @@ public class Filesystem extends Plugin {
 
     assert fromObject != null;
 
+    if (doRename && fromObject.renameTo(toObject)) {
+      call.success();
+      return;
+    }
+
+    // Renames across storage volumes fall back to a copy
+    try {
+      copyRecursively(fromObject, toObject, copyId);
+    } catch (CopyTask.CancelledException e) {
+      call.error("Copy cancelled");
+      return;
+    } catch (IOException e) {
+      call.error((doRename ? "Unable to rename: " : "Unable to perform action: ") + e.getLocalizedMessage());
+      return;
+    }
     if (doRename) {
-      boolean modified = fromObject.renameTo(toObject);
-      if (!modified) {
-        call.error("Unable to rename, unknown reason");
-        return;
-      }
-    } else {
       try {
-        copyRecursively(fromObject, toObject);
+        deleteRecursively(fromObject);
       } catch (IOException e) {
-        call.error("Unable to perform action: " + e.getLocalizedMessage());
+        call.error("Unable to remove the source after copying it: " + e.getLocalizedMessage());
         return;
       }
     }
@@ -598,16 +1419,120 @@ public class Filesystem extends Plugin {
     call.success();
   }
 
-  @PluginMethod()
+  /**
+   * Copies don't hold up the plugin's other calls, so that they can be cancelled while running
+   */
+  @PluginMethod(ordered = false)
   public void rename(PluginCall call) {
     this._copy(call, true);
   }
 
-  @PluginMethod()
+  @PluginMethod(ordered = false)
   public void copy(PluginCall call) {
     this._copy(call, false);
   }
 
+  /**
+   * Hash a file natively. Hashes the whole file, or the offset/length range of it, as
+   * <code>hash</code>. With <code>ranges</code> (a list of offset/length objects) or
+   * <code>chunkSize</code> (every chunk of the file or range), returns one hash per range
+   * as <code>hashes</code>, computed in parallel. Hashes are hex encoded.
+   */
+  @PluginMethod(ordered = false)
+  public void hashFile(PluginCall call) {
+    String file = call.getString("path");
+    String directory = getDirectoryParameter(call);
+    String algorithm = call.getString("algorithm", "SHA-256");
+    Long offset = call.getLong("offset", 0L);
+    Long length = call.getLong("length");
+    Long chunkSize = call.getLong("chunkSize");
+    JSArray ranges = call.getArray("ranges");
+
+    if (offset < 0 || (length != null && length < 0) || (chunkSize != null && chunkSize <= 0)) {
+      call.error("offset and length must not be negative, and chunkSize must be positive");
+      return;
+    }
+
+    if (!isPublicDirectory(directory)
+        || isStoragePermissionGranted(call, PluginRequestCodes.FILESYSTEM_REQUEST_HASH_PERMISSIONS, Manifest.permission.READ_EXTERNAL_STORAGE)) {
+      FileInputStream fis = null;
+      try {
+        FileHasher hasher = new FileHasher(algorithm);
+        fis = getSeekableInputStream(file, directory);
+        JSObject ret = new JSObject();
+
+        if (ranges == null && chunkSize == null) {
+          byte[] hash;
+          if (fis != null) {
+            hash = hasher.hash(fis.getChannel(), offset, length);
+          } else {
+            InputStream is = getInputStream(file, directory);
+            try {
+              hash = hasher.hash(is, offset, length);
+            } finally {
+              is.close();
+            }
+          }
+          ret.put("hash", FileHasher.toHex(hash));
+        } else {
+          if (fis == null) {
+            call.error("Ranges can only be hashed for files that can be read positionally");
+            return;
+          }
+          List<long[]> hashRanges = new ArrayList<>();
+          if (ranges != null) {
+            for (int i = 0; i < ranges.length(); i++) {
+              JSONObject range = ranges.getJSONObject(i);
+              hashRanges.add(new long[] { range.getLong("offset"), range.getLong("length") });
+            }
+          } else {
+            long size = fis.getChannel().size();
+            long end = length == null ? size : Math.min(size, offset + length);
+            for (long start = offset; start < end; start += chunkSize) {
+              hashRanges.add(new long[] { start, Math.min(chunkSize, end - start) });
+            }
+          }
+
+          JSArray hashes = new JSArray();
+          for (byte[] hash : hasher.hashRanges(fis.getChannel(), hashRanges, getWorkerExecutor())) {
+            hashes.put(FileHasher.toHex(hash));
+          }
+          ret.put("hashes", hashes);
+        }
+
+        ret.put("algorithm", algorithm);
+        call.success(ret);
+      } catch (NoSuchAlgorithmException ex) {
+        call.error("Unsupported algorithm: " + algorithm);
+      } catch (JSONException ex) {
+        call.error("Invalid ranges, each must have an offset and a length", ex);
+      } catch (FileNotFoundException ex) {
+        call.error("File does not exist", ex);
+      } catch (IOException ex) {
+        call.error("Unable to hash file", ex);
+      } finally {
+        if (fis != null) {
+          closeQuietly(fis);
+        }
+      }
+    }
+  }
+
+  /**
+   * Cancel a running copy or rename by the copyId it was started with, or its call id
+   */
+  @PluginMethod(ordered = false)
+  public void cancelCopy(PluginCall call) {
+    String copyId = call.getString("copyId");
+    CopyTask task = copyId == null ? null : copies.get(copyId);
+    if (task != null) {
+      task.cancel();
+    }
+    JSObject ret = new JSObject();
+    ret.put("cancelled", task != null);
+    call.success(ret);
+  }
+
   /**
    * Checks the the given permission and requests them if they are not already granted.
    * @param permissionRequestCode the request code see {@link PluginRequestCodes}
@@ -625,6 +1550,27 @@ public class Filesystem extends Plugin {
     }
   }
 
+  /**
+   * Like {@link #isStoragePermissionGranted(int, String)}, for unordered methods: instead of
+   * the saved call, the call is kept with the other calls waiting for the same request code.
+   */
+  private boolean isStoragePermissionGranted(PluginCall call, int permissionRequestCode, String permission) {
+    if (hasPermission(permission)) {
+      return true;
+    }
+    synchronized (pendingPermissionCalls) {
+      List<PluginCall> calls = pendingPermissionCalls.get(permissionRequestCode);
+      if (calls == null) {
+        calls = new ArrayList<>();
+        pendingPermissionCalls.put(permissionRequestCode, calls);
+      }
+      calls.add(call);
+    }
+    Logger.verbose(getLogTag(),"Permission '" + permission + "' denied. Asking user for it.");
+    pluginRequestPermissions(new String[] {permission}, permissionRequestCode);
+    return false;
+  }
+
   /**
    * Reads the directory parameter from the plugin call
    * @param call the plugin call
@@ -637,7 +1583,7 @@ public class Filesystem extends Plugin {
    * True if the given directory string is a public storage directory, which is accessible by the user or other apps.
    * @param directory the directory string.
    */
-  private boolean isPublicDirectory(String directory) {
+  static boolean isPublicDirectory(String directory) {
     return "DOCUMENTS".equals(directory) || "EXTERNAL_STORAGE".equals(directory);
   }
 
@@ -647,6 +1593,29 @@ public class Filesystem extends Plugin {
 
     Logger.debug(getLogTag(),"handling request perms result");
 
+    List<PluginCall> pendingCalls;
+    synchronized (pendingPermissionCalls) {
+      pendingCalls = pendingPermissionCalls.remove(requestCode);
+    }
+    if (pendingCalls != null) {
+      boolean denied = false;
+      for (int result : grantResults) {
+        denied |= result == PackageManager.PERMISSION_DENIED;
+      }
+      for (PluginCall pendingCall : pendingCalls) {
+        if (denied) {
+          pendingCall.error(PERMISSION_DENIED_ERROR);
+        } else if (requestCode == PluginRequestCodes.FILESYSTEM_REQUEST_RENAME_PERMISSIONS) {
+          this.rename(pendingCall);
+        } else if (requestCode == PluginRequestCodes.FILESYSTEM_REQUEST_COPY_PERMISSIONS) {
+          this.copy(pendingCall);
+        } else if (requestCode == PluginRequestCodes.FILESYSTEM_REQUEST_HASH_PERMISSIONS) {
+          this.hashFile(pendingCall);
+        }
+      }
+      return;
+    }
+
     if (getSavedCall() == null) {
       Logger.debug(getLogTag(),"No stored plugin call for permissions request result");
       return;
@@ -681,10 +1650,14 @@ public class Filesystem extends Plugin {
       this.getUri(savedCall);
     } else if (requestCode == PluginRequestCodes.FILESYSTEM_REQUEST_STAT_PERMISSIONS) {
       this.stat(savedCall);
-    } else if (requestCode == PluginRequestCodes.FILESYSTEM_REQUEST_RENAME_PERMISSIONS) {
-      this.rename(savedCall);
-    } else if (requestCode == PluginRequestCodes.FILESYSTEM_REQUEST_COPY_PERMISSIONS) {
-      this.copy(savedCall);
+    } else if (requestCode == PluginRequestCodes.FILESYSTEM_REQUEST_READ_STREAM_PERMISSIONS) {
+      this.openReadStream(savedCall);
+    } else if (requestCode == PluginRequestCodes.FILESYSTEM_REQUEST_WRITE_STREAM_PERMISSIONS) {
+      this.openWriteStream(savedCall);
+    } else if (requestCode == PluginRequestCodes.FILESYSTEM_REQUEST_CHUNKED_FILE_PERMISSIONS) {
+      this.openChunkedFile(savedCall);
+    } else if (requestCode == PluginRequestCodes.FILESYSTEM_REQUEST_WALK_PERMISSIONS) {
+      this.walk(savedCall);
     } else if (requestCode == PluginRequestCodes.FILESYSTEM_REQUEST_ALL_PERMISSIONS){
       savedCall.resolve();
     }
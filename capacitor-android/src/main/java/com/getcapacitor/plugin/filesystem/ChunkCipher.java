@@ -0,0 +1,95 @@
+package com.getcapacitor.plugin.filesystem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Encrypts and decrypts regions of files with AES-GCM, streaming them through the cipher.
+ *
+ * The authentication tag is kept apart from the ciphertext: encrypting returns it, and
+ * decrypting takes it. Note that most providers hold back decrypted output until the tag is
+ * verified, so decryption buffers one region in memory. Regions should be upload chunks, not
+ * whole large files.
+ */
+public class ChunkCipher {
+
+    public static final int IV_LENGTH = 12;
+    public static final int TAG_LENGTH = 16;
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Encrypt <code>length</code> bytes of the channel from <code>offset</code>, or up to the end
+     * of the file if length is null, writing the ciphertext to <code>out</code>
+     * @param aad additional authenticated data, or null
+     * @return the authentication tag
+     */
+    public static byte[] encrypt(FileChannel in, long offset, Long length, OutputStream out, byte[] key, byte[] iv, byte[] aad)
+            throws IOException, GeneralSecurityException {
+        Cipher cipher = init(Cipher.ENCRYPT_MODE, key, iv, aad);
+        pump(cipher, in, offset, length, out);
+        byte[] last = cipher.doFinal();
+        out.write(last, 0, last.length - TAG_LENGTH);
+        return Arrays.copyOfRange(last, last.length - TAG_LENGTH, last.length);
+    }
+
+    /**
+     * Decrypt a region of the channel written by {@link #encrypt}, writing the plaintext to
+     * <code>out</code>
+     * @throws javax.crypto.AEADBadTagException if the data, tag, key, iv or aad don't match
+     */
+    public static void decrypt(FileChannel in, long offset, Long length, OutputStream out, byte[] key, byte[] iv, byte[] tag, byte[] aad)
+            throws IOException, GeneralSecurityException {
+        if (tag.length != TAG_LENGTH) {
+            throw new IllegalArgumentException("The tag must be " + TAG_LENGTH + " bytes");
+        }
+        Cipher cipher = init(Cipher.DECRYPT_MODE, key, iv, aad);
+        pump(cipher, in, offset, length, out);
+        byte[] last = cipher.doFinal(tag);
+        out.write(last);
+    }
+
+    private static Cipher init(int mode, byte[] key, byte[] iv, byte[] aad) throws GeneralSecurityException {
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new IllegalArgumentException("The key must be 16, 24 or 32 bytes");
+        }
+        if (iv.length != IV_LENGTH) {
+            throw new IllegalArgumentException("The iv must be " + IV_LENGTH + " bytes");
+        }
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(mode, new SecretKeySpec(key, "AES"), new GCMParameterSpec(TAG_LENGTH * 8, iv));
+        if (aad != null) {
+            cipher.updateAAD(aad);
+        }
+        return cipher;
+    }
+
+    private static void pump(Cipher cipher, FileChannel in, long offset, Long length, OutputStream out) throws IOException {
+        long end = length == null ? in.size() : Math.min(in.size(), offset + length);
+        byte[] bytes = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long position = offset;
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(bytes.length, end - position));
+            int read = in.read(buffer, position);
+            if (read == -1) {
+                break;
+            }
+            position += read;
+            byte[] output = cipher.update(bytes, 0, read);
+            if (output != null) {
+                out.write(output);
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.getcapacitor.plugin.filesystem;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A file of a known size assembled from fixed-size chunks that can arrive in any order.
+ *
+ * The file is preallocated to its final size and each chunk is written at its own offset,
+ * so chunks can be written from several threads at once. Completed chunks are recorded in
+ * a bitmap persisted next to the file (<code>&lt;name&gt;.chunks</code>), so an assembly
+ * interrupted by a process kill can be resumed by opening it again with the same size and
+ * chunk size. The bitmap is deleted once every chunk has been written and the file is closed.
+ */
+public class ChunkedFile implements Closeable {
+
+    private static final String BITMAP_SUFFIX = ".chunks";
+    private static final int MAGIC = 0x43484e4b;
+    private static final int HEADER_SIZE = 4 + 8 + 4;
+
+    private final String id;
+    private final File file;
+    private final File bitmapFile;
+    private final long size;
+    private final int chunkSize;
+    private final int chunkCount;
+
+    private final RandomAccessFile data;
+    private final RandomAccessFile bitmapData;
+    private final byte[] bitmap;
+    private int completedCount;
+    private boolean resumed;
+
+    public ChunkedFile(String id, File file, long size, int chunkSize) throws IOException {
+        if (size < 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("size must not be negative and chunkSize must be positive");
+        }
+        long count = (size + chunkSize - 1) / chunkSize;
+        if (count > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many chunks, use a larger chunkSize");
+        }
+
+        this.id = id;
+        this.file = file;
+        this.bitmapFile = new File(file.getPath() + BITMAP_SUFFIX);
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.chunkCount = (int) count;
+        this.bitmap = new byte[(chunkCount + 7) / 8];
+
+        boolean resumable = bitmapFile.exists() && file.exists() && file.length() == size;
+        this.data = new RandomAccessFile(file, "rw");
+        try {
+            this.bitmapData = new RandomAccessFile(bitmapFile, "rw");
+            try {
+                if (!(resumable && loadBitmap())) {
+                    bitmapData.setLength(0);
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                    header.putInt(MAGIC).putLong(size).putInt(chunkSize).flip();
+                    bitmapData.getChannel().write(header, 0);
+                    bitmapData.getChannel().write(ByteBuffer.wrap(bitmap), HEADER_SIZE);
+                    data.setLength(size);
+                }
+            } catch (IOException ex) {
+                bitmapData.close();
+                throw ex;
+            }
+        } catch (IOException ex) {
+            data.close();
+            throw ex;
+        }
+    }
+
+    private boolean loadBitmap() throws IOException {
+        if (bitmapData.length() != HEADER_SIZE + bitmap.length) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(bitmapData.getChannel(), header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getLong() != size || header.getInt() != chunkSize) {
+            return false;
+        }
+        readFully(bitmapData.getChannel(), ByteBuffer.wrap(bitmap), HEADER_SIZE);
+        for (int i = 0; i < chunkCount; i++) {
+            if (isSet(i)) {
+                completedCount++;
+            }
+        }
+        resumed = true;
+        return true;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * @return true if the file was opened with chunks already written by an earlier assembly
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    /**
+     * Write a chunk at its offset and record it as complete. Safe to call from several
+     * threads at once.
+     * @param index the chunk index
+     * @param chunk the chunk data, exactly chunkSize bytes except for the last chunk
+     */
+    public void writeChunk(int index, byte[] chunk) throws IOException {
+        if (index < 0 || index >= chunkCount) {
+            throw new IllegalArgumentException("Chunk index " + index + " out of range, the file has " + chunkCount + " chunks");
+        }
+        long offset = (long) index * chunkSize;
+        long expected = Math.min(chunkSize, size - offset);
+        if (chunk.length != expected) {
+            throw new IllegalArgumentException("Chunk " + index + " must be " + expected + " bytes, got " + chunk.length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+        FileChannel channel = data.getChannel();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+
+        synchronized (bitmap) {
+            if (isSet(index)) {
+                return;
+            }
+            bitmap[index / 8] |= 1 << (index % 8);
+            completedCount++;
+            int byteIndex = index / 8;
+            bitmapData.getChannel().write(ByteBuffer.wrap(bitmap, byteIndex, 1), HEADER_SIZE + byteIndex);
+        }
+    }
+
+    public boolean isComplete() {
+        synchronized (bitmap) {
+            return completedCount == chunkCount;
+        }
+    }
+
+    /**
+     * @return the completed chunks as runs of indexes, each a <code>{start, end}</code> pair
+     * with an exclusive end
+     */
+    public List<int[]> getCompletedRanges() {
+        List<int[]> ranges = new ArrayList<>();
+        synchronized (bitmap) {
+            int start = -1;
+            for (int i = 0; i < chunkCount; i++) {
+                if (isSet(i)) {
+                    if (start < 0) {
+                        start = i;
+                    }
+                } else if (start >= 0) {
+                    ranges.add(new int[] { start, i });
+                    start = -1;
+                }
+            }
+            if (start >= 0) {
+                ranges.add(new int[] { start, chunkCount });
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Close the file. The bitmap is removed if every chunk has been written, otherwise it's
+     * kept so the assembly can be resumed.
+     */
+    public void close(boolean sync) throws IOException {
+        try {
+            if (sync) {
+                data.getChannel().force(true);
+            }
+        } finally {
+            data.close();
+            bitmapData.close();
+        }
+        if (isComplete()) {
+            bitmapFile.delete();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        close(false);
+    }
+
+    private boolean isSet(int index) {
+        return (bitmap[index / 8] & (1 << (index % 8))) != 0;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) == -1) {
+                throw new IOException("Unexpected end of chunk bitmap");
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.getcapacitor.plugin.filesystem;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies a file or a directory tree.
+ *
+ * Files are copied with <code>transferTo</code> in bounded slices, so a large file neither
+ * comes up silently short nor ties up the copy without a chance to report progress or notice
+ * a cancellation. The files of a directory tree are copied in parallel on the given executor.
+ */
+public class CopyTask {
+
+    public interface ProgressListener {
+        void onProgress(long bytesCopied, long totalBytes, int filesCopied, int totalFiles);
+    }
+
+    public static class CancelledException extends IOException {
+        public CancelledException() {
+            super("Copy cancelled");
+        }
+    }
+
+    private static final long SLICE_SIZE = 8 * 1024 * 1024;
+
+    private final File src;
+    private final File dst;
+    private final Executor executor;
+    private final ProgressListener listener;
+
+    private final AtomicLong bytesCopied = new AtomicLong();
+    private final AtomicInteger filesCopied = new AtomicInteger();
+    private long totalBytes;
+    private int totalFiles;
+    // Set by cancel() or by a file that failed, so the others stop at their next slice
+    private volatile boolean cancelled;
+
+    public CopyTask(File src, File dst, Executor executor, ProgressListener listener) {
+        this.src = src;
+        this.dst = dst;
+        this.executor = executor;
+        this.listener = listener;
+    }
+
+    /**
+     * Stop the copy at the next slice boundary. Files already copied are left in place,
+     * partly copied ones are deleted.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Copy, blocking until every file is done. If a file fails, the others stop and the
+     * first failure is thrown.
+     * @throws CancelledException if the copy was cancelled and no file failed
+     */
+    public void run() throws IOException {
+        List<File[]> files = new ArrayList<>();
+        plan(src, dst, files);
+        for (File[] pair : files) {
+            totalBytes += pair[0].length();
+        }
+        totalFiles = files.size();
+        listener.onProgress(0, totalBytes, 0, totalFiles);
+
+        if (files.size() == 1) {
+            copyFile(files.get(0)[0], files.get(0)[1]);
+            return;
+        }
+
+        List<Future<Void>> futures = new ArrayList<>();
+        for (final File[] pair : files) {
+            FutureTask<Void> future = new FutureTask<>(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    copyFile(pair[0], pair[1]);
+                    return null;
+                }
+            });
+            futures.add(future);
+            executor.execute(future);
+        }
+
+        IOException failure = null;
+        CancelledException cancellation = null;
+        for (Future<Void> future : futures) {
+            try {
+                await(future);
+            } catch (CancelledException ex) {
+                // Stopped by cancel() or by another file's failure
+                cancellation = ex;
+            } catch (IOException ex) {
+                if (failure == null) {
+                    failure = ex;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        if (cancellation != null) {
+            throw cancellation;
+        }
+    }
+
+    /**
+     * Create the destination directories and list the files to copy
+     */
+    private void plan(File from, File to, List<File[]> files) throws IOException {
+        if (cancelled) {
+            throw new CancelledException();
+        }
+        if (from.isDirectory()) {
+            if (!to.isDirectory() && !to.mkdirs()) {
+                throw new IOException("Unable to create directory " + to.getPath());
+            }
+            String[] children = from.list();
+            if (children == null) {
+                throw new IOException("Unable to list " + from.getPath());
+            }
+            for (String child : children) {
+                plan(new File(from, child), new File(to, child), files);
+            }
+        } else {
+            files.add(new File[] { from, to });
+        }
+    }
+
+    private void copyFile(File from, File to) throws IOException {
+        if (!to.getParentFile().exists()) {
+            to.getParentFile().mkdirs();
+        }
+
+        boolean complete = false;
+        try (FileChannel source = new FileInputStream(from).getChannel(); FileChannel destination = new FileOutputStream(to).getChannel()) {
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                if (cancelled) {
+                    throw new CancelledException();
+                }
+                long copied = source.transferTo(position, Math.min(SLICE_SIZE, size - position), destination);
+                if (copied <= 0) {
+                    break;
+                }
+                position += copied;
+                listener.onProgress(bytesCopied.addAndGet(copied), totalBytes, filesCopied.get(), totalFiles);
+            }
+            if (position != size) {
+                throw new IOException("Copied " + position + " of " + size + " bytes of " + from.getPath());
+            }
+            complete = true;
+        } finally {
+            if (!complete) {
+                cancelled = true;
+                to.delete();
+            }
+        }
+        listener.onProgress(bytesCopied.get(), totalBytes, filesCopied.incrementAndGet(), totalFiles);
+    }
+
+    private static void await(Future<Void> future) throws IOException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    future.get();
+                    return;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.getcapacitor.plugin.filesystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Walks a directory tree depth first, a page of entries at a time, so that a huge tree can be
+ * listed with its metadata without holding all of it in memory at once.
+ *
+ * Symbolic links to directories are listed but not followed, so a link can't send the walk
+ * into a loop. TreeDeleter's trash directories are left out.
+ */
+public class DirectoryWalker {
+
+    public static class Entry {
+        private final String path;
+        private final File file;
+        private final boolean directory;
+        private final long size;
+        private final long mtime;
+        private final int depth;
+
+        Entry(String path, File file, boolean directory, int depth) {
+            this.path = path;
+            this.file = file;
+            this.directory = directory;
+            this.size = directory ? 0 : file.length();
+            this.mtime = file.lastModified();
+            this.depth = depth;
+        }
+
+        /**
+         * @return the path relative to the root of the walk
+         */
+        public String getPath() {
+            return path;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public boolean isDirectory() {
+            return directory;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getMtime() {
+            return mtime;
+        }
+
+        /**
+         * @return 1 for direct children of the root
+         */
+        public int getDepth() {
+            return depth;
+        }
+    }
+
+    private static class Frame {
+        final File dir;
+        final File canonicalDir;
+        final String path;
+        final int depth;
+        final String[] children;
+        int index;
+
+        Frame(File dir, String path, int depth) {
+            this.dir = dir;
+            this.canonicalDir = canonical(dir);
+            this.path = path;
+            this.depth = depth;
+            String[] list = dir.list(TreeDeleter.NOT_TRASH);
+            this.children = list != null ? list : new String[0];
+        }
+    }
+
+    private final int maxDepth;
+    private final Deque<Frame> stack = new ArrayDeque<>();
+
+    /**
+     * @param maxDepth how many levels below the root to list, 1 for only the root's children
+     */
+    public DirectoryWalker(File root, int maxDepth) throws IOException {
+        if (!root.isDirectory()) {
+            throw new IOException("Not a directory: " + root.getPath());
+        }
+        this.maxDepth = maxDepth;
+        stack.push(new Frame(root, "", 1));
+    }
+
+    public synchronized boolean isDone() {
+        return stack.isEmpty();
+    }
+
+    /**
+     * @return up to <code>max</code> more entries, empty once the walk is done
+     */
+    public synchronized List<Entry> next(int max) {
+        List<Entry> entries = new ArrayList<>();
+        popExhaustedFrames();
+        while (entries.size() < max && !stack.isEmpty()) {
+            Frame frame = stack.peek();
+            String name = frame.children[frame.index++];
+            File file = new File(frame.dir, name);
+            String path = frame.path.isEmpty() ? name : frame.path + "/" + name;
+            boolean directory = file.isDirectory();
+            entries.add(new Entry(path, file, directory, frame.depth));
+
+            if (directory && frame.depth < maxDepth && !isSymlink(frame, file)) {
+                stack.push(new Frame(file, path, frame.depth + 1));
+            }
+            popExhaustedFrames();
+        }
+        return entries;
+    }
+
+    /**
+     * Drop the directories that have no entries left, so that isDone() is true as soon as
+     * the last entry has been returned
+     */
+    private void popExhaustedFrames() {
+        while (!stack.isEmpty() && stack.peek().index >= stack.peek().children.length) {
+            stack.pop();
+        }
+    }
+
+    /**
+     * A directory is a link if its canonical path isn't its name in its parent's canonical path
+     */
+    private static boolean isSymlink(Frame parent, File file) {
+        return !canonical(file).equals(new File(parent.canonicalDir, file.getName()));
+    }
+
+    private static File canonical(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException ex) {
+            return file.getAbsoluteFile();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.getcapacitor.plugin.filesystem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Hashes files, or byte ranges of them, with a MessageDigest without copying the data
+ * through the Java heap. Several ranges of one file are hashed in parallel.
+ */
+public class FileHasher {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final String algorithm;
+
+    /**
+     * @param algorithm a MessageDigest algorithm, such as SHA-256
+     */
+    public FileHasher(String algorithm) throws NoSuchAlgorithmException {
+        // Fail early on unknown algorithms
+        MessageDigest.getInstance(algorithm);
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Hash <code>length</code> bytes of the channel starting at <code>offset</code>, or up to
+     * the end of the file if length is null
+     */
+    public byte[] hash(FileChannel channel, long offset, Long length) throws IOException {
+        long end = length == null ? channel.size() : Math.min(channel.size(), offset + length);
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long position = offset;
+        while (position < end) {
+            buffer.clear();
+            if (end - position < buffer.capacity()) {
+                buffer.limit((int) (end - position));
+            }
+            int read = channel.read(buffer, position);
+            if (read == -1) {
+                break;
+            }
+            buffer.flip();
+            digest.update(buffer);
+            position += read;
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Hash a stream that can't be read positionally
+     */
+    public byte[] hash(InputStream in, long offset, Long length) throws IOException {
+        long skipped = 0;
+        while (skipped < offset) {
+            long n = in.skip(offset - skipped);
+            if (n <= 0) {
+                if (in.read() == -1) {
+                    break;
+                }
+                n = 1;
+            }
+            skipped += n;
+        }
+
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[64 * 1024];
+        long remaining = length == null ? Long.MAX_VALUE : length;
+        int read;
+        while (remaining > 0 && (read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+            digest.update(buffer, 0, read);
+            remaining -= read;
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Hash several ranges of a channel in parallel
+     * @param ranges <code>{offset, length}</code> pairs
+     * @return the hash of each range, in the same order
+     */
+    public List<byte[]> hashRanges(final FileChannel channel, List<long[]> ranges, Executor executor) throws IOException {
+        List<FutureTask<byte[]>> futures = new ArrayList<>();
+        for (final long[] range : ranges) {
+            FutureTask<byte[]> future = new FutureTask<>(new Callable<byte[]>() {
+                @Override
+                public byte[] call() throws IOException {
+                    return hash(channel, range[0], range[1]);
+                }
+            });
+            futures.add(future);
+            executor.execute(future);
+        }
+
+        List<byte[]> hashes = new ArrayList<>();
+        boolean interrupted = false;
+        try {
+            for (FutureTask<byte[]> future : futures) {
+                while (true) {
+                    try {
+                        hashes.add(future.get());
+                        break;
+                    } catch (InterruptedException ex) {
+                        interrupted = true;
+                    }
+                }
+            }
+        } catch (ExecutionException ex) {
+            for (FutureTask<byte[]> future : futures) {
+                future.cancel(false);
+            }
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return hashes;
+    }
+
+    public static String toHex(byte[] hash) {
+        StringBuilder sb = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException ex) {
+            // Checked in the constructor
+            throw new IllegalStateException(ex);
+        }
+    }
+}
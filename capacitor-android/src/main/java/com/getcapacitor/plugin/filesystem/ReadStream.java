@@ -0,0 +1,148 @@
+package com.getcapacitor.plugin.filesystem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A file read in fixed-size chunks on behalf of the WebView.
+ *
+ * The reader is granted credits, one per chunk. A chunk is only read while there is credit
+ * left, so no more than the granted number of chunks are in memory on their way to the
+ * WebView, whatever the size of the file.
+ */
+public class ReadStream implements Closeable {
+
+    private final String id;
+    private final InputStream in;
+    private final FileChannel channel;
+    private final int chunkSize;
+    private final long end;
+
+    private long position;
+    private int sequence;
+    private int credits;
+    private boolean finished;
+
+    /**
+     * @param in the stream to read
+     * @param channel a channel on the same file for positional reads, or null to read
+     *                <code>in</code> sequentially
+     * @param offset where to start reading
+     * @param length how many bytes to read, or null to read to the end
+     * @param chunkSize the size of every chunk but the last
+     * @param credits how many chunks can be read before the first acknowledgement
+     */
+    public ReadStream(String id, InputStream in, FileChannel channel, long offset, Long length, int chunkSize, int credits) throws IOException {
+        this.id = id;
+        this.in = in;
+        this.channel = channel;
+        this.chunkSize = chunkSize;
+        this.credits = credits;
+
+        long limit = length == null || length > Long.MAX_VALUE - offset ? Long.MAX_VALUE : offset + length;
+        if (channel != null) {
+            this.position = Math.min(offset, channel.size());
+            this.end = Math.min(limit, channel.size());
+        } else {
+            this.position = skip(in, offset);
+            this.end = limit;
+        }
+        this.finished = position >= end;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return the total number of bytes the stream will produce, or -1 if it isn't known
+     */
+    public synchronized long getSize() {
+        return channel != null ? end - position : -1;
+    }
+
+    /**
+     * @return the file offset of the next chunk
+     */
+    public synchronized long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the sequence number of the next chunk, starting at 0
+     */
+    public synchronized int getSequence() {
+        return sequence;
+    }
+
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    public synchronized boolean hasCredit() {
+        return credits > 0 && !finished;
+    }
+
+    public synchronized void grant(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        credits += count;
+    }
+
+    /**
+     * Read the next chunk, using up one credit
+     * @return the chunk, or null if there's no credit left or the stream is finished
+     */
+    public synchronized byte[] readChunk() throws IOException {
+        if (!hasCredit()) {
+            return null;
+        }
+
+        int size = (int) Math.min(chunkSize, end - position);
+        byte[] chunk = new byte[size];
+        int filled = 0;
+        while (filled < size) {
+            int read = channel != null
+                    ? channel.read(ByteBuffer.wrap(chunk, filled, size - filled), position + filled)
+                    : in.read(chunk, filled, size - filled);
+            if (read == -1) {
+                break;
+            }
+            filled += read;
+        }
+
+        position += filled;
+        sequence++;
+        credits--;
+        if (filled < size || position >= end) {
+            finished = true;
+        }
+        return filled < size ? Arrays.copyOf(chunk, filled) : chunk;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        finished = true;
+        in.close();
+    }
+
+    private static long skip(InputStream in, long count) throws IOException {
+        long skipped = 0;
+        while (skipped < count) {
+            long n = in.skip(count - skipped);
+            if (n <= 0) {
+                if (in.read() == -1) {
+                    break;
+                }
+                n = 1;
+            }
+            skipped += n;
+        }
+        return skipped;
+    }
+}
@@ -0,0 +1,188 @@
+package com.getcapacitor.plugin.filesystem;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes directory trees with a fork-join pool: every subdirectory is a task of its own, so
+ * a wide tree of many small files is removed on several threads at once.
+ *
+ * Links to directories are removed, never followed.
+ *
+ * Trees can also be moved to a trash directory first, so that they disappear at once and are
+ * deleted afterwards. Tombstones are named after the process that made them, so the ones left
+ * behind by a process that died mid-delete can be told apart and swept with emptyTrash.
+ */
+public class TreeDeleter {
+
+    public static final String TRASH_DIR = ".capacitor-trash";
+
+    /**
+     * Accepts every name but the trash directory's, for listings
+     */
+    public static final FilenameFilter NOT_TRASH = new FilenameFilter() {
+        @Override
+        public boolean accept(File dir, String name) {
+            return !TRASH_DIR.equals(name);
+        }
+    };
+
+    private static final String SESSION = UUID.randomUUID().toString() + "-";
+    private static final AtomicLong nextTombstone = new AtomicLong();
+
+    private static ForkJoinPool pool;
+
+    private static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())));
+        }
+        return pool;
+    }
+
+    /**
+     * Delete a file, or a directory and everything in it
+     * @return the number of entries removed, the root included
+     * @throws IOException if some entries couldn't be removed, after removing all the others
+     */
+    public static long delete(File root) throws IOException {
+        if (!root.exists()) {
+            return 0;
+        }
+        if (!root.isDirectory() || isLink(root)) {
+            if (!root.delete()) {
+                throw new IOException("Unable to delete " + root.getPath());
+            }
+            return 1;
+        }
+
+        Failures failures = new Failures();
+        long removed = getPool().invoke(new DeleteTask(root, canonical(root), failures));
+        if (failures.count.get() > 0) {
+            throw new IOException("Unable to delete " + failures.count.get() + " entries, first " + failures.first);
+        }
+        return removed;
+    }
+
+    /**
+     * Move a file or directory into the trash directory of <code>trashRoot</code> with a rename,
+     * so that it disappears at once and can be deleted later. The trash must be on the same
+     * volume as the file.
+     * @return the renamed file
+     */
+    public static File tombstone(File file, File trashRoot) throws IOException {
+        File trash = new File(trashRoot, TRASH_DIR);
+        if (!trash.isDirectory() && !trash.mkdirs()) {
+            throw new IOException("Unable to create " + trash.getPath());
+        }
+        File tombstone = new File(trash, SESSION + nextTombstone.incrementAndGet());
+        if (!file.renameTo(tombstone)) {
+            throw new IOException("Unable to move " + file.getPath() + " out of the way");
+        }
+        return tombstone;
+    }
+
+    /**
+     * Delete the tombstones other processes left in the trash of <code>trashRoot</code>.
+     * Tombstones of this process are still being deleted and are left alone.
+     * @return the number of entries removed
+     */
+    public static long emptyTrash(File trashRoot) throws IOException {
+        String[] names = new File(trashRoot, TRASH_DIR).list();
+        if (names == null) {
+            return 0;
+        }
+        long removed = 0;
+        IOException failure = null;
+        for (String name : names) {
+            if (name.startsWith(SESSION)) {
+                continue;
+            }
+            try {
+                removed += delete(new File(new File(trashRoot, TRASH_DIR), name));
+            } catch (IOException ex) {
+                if (failure == null) {
+                    failure = ex;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return removed;
+    }
+
+    private static class Failures {
+        final AtomicInteger count = new AtomicInteger();
+        volatile String first;
+
+        void add(File file) {
+            if (count.getAndIncrement() == 0) {
+                first = file.getPath();
+            }
+        }
+    }
+
+    private static class DeleteTask extends RecursiveTask<Long> {
+        private final File dir;
+        private final File canonicalDir;
+        private final Failures failures;
+
+        DeleteTask(File dir, File canonicalDir, Failures failures) {
+            this.dir = dir;
+            this.canonicalDir = canonicalDir;
+            this.failures = failures;
+        }
+
+        @Override
+        protected Long compute() {
+            long removed = 0;
+            List<DeleteTask> subtasks = new ArrayList<>();
+            String[] names = dir.list();
+            if (names != null) {
+                for (String name : names) {
+                    File child = new File(dir, name);
+                    File canonicalChild = new File(canonicalDir, name);
+                    if (child.isDirectory() && canonical(child).equals(canonicalChild)) {
+                        DeleteTask task = new DeleteTask(child, canonicalChild, failures);
+                        task.fork();
+                        subtasks.add(task);
+                    } else if (child.delete()) {
+                        removed++;
+                    } else {
+                        failures.add(child);
+                    }
+                }
+            }
+            for (DeleteTask task : subtasks) {
+                removed += task.join();
+            }
+            if (dir.delete()) {
+                removed++;
+            } else {
+                failures.add(dir);
+            }
+            return removed;
+        }
+    }
+
+    private static boolean isLink(File dir) {
+        File parent = dir.getParentFile();
+        return parent != null && !canonical(dir).equals(new File(canonical(parent), dir.getName()));
+    }
+
+    private static File canonical(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException ex) {
+            return file.getAbsoluteFile();
+        }
+    }
+}
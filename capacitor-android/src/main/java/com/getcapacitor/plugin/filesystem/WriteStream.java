@@ -0,0 +1,132 @@
+package com.getcapacitor.plugin.filesystem;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+
+/**
+ * A file kept open for writing across plugin calls.
+ *
+ * Writes either go after the previous one, or to an explicit position so that chunks can be
+ * written in whatever order they arrive. Once the stream is closed, every other method
+ * throws ClosedChannelException.
+ */
+public class WriteStream implements Closeable {
+
+    private final String id;
+    private final File file;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private long lastUsed;
+    private boolean closed;
+
+    /**
+     * @param append keep the current content of the file and start writing at its end,
+     *               otherwise the file is truncated
+     */
+    public WriteStream(String id, File file, boolean append) throws IOException {
+        this.id = id;
+        this.file = file;
+        this.raf = new RandomAccessFile(file, "rw");
+        this.channel = raf.getChannel();
+        try {
+            if (append) {
+                channel.position(channel.size());
+            } else {
+                channel.truncate(0);
+            }
+        } catch (IOException ex) {
+            raf.close();
+            throw ex;
+        }
+        this.lastUsed = System.nanoTime();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Write data after the previous sequential write
+     * @return the file offset the data was written at
+     */
+    public synchronized long write(byte[] data) throws IOException {
+        ensureOpen();
+        lastUsed = System.nanoTime();
+        long position = channel.position();
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return position;
+    }
+
+    /**
+     * Write data at the given file offset. The position of sequential writes doesn't move.
+     */
+    public synchronized void write(byte[] data, long position) throws IOException {
+        ensureOpen();
+        lastUsed = System.nanoTime();
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    public synchronized long size() throws IOException {
+        ensureOpen();
+        return channel.size();
+    }
+
+    /**
+     * Close the stream if it hasn't been written to for at least <code>timeoutNanos</code>.
+     * The check and the close happen under the same lock as writes, so a write either
+     * finishes first or finds the stream closed.
+     * @return true if the stream was closed by this call
+     */
+    public synchronized boolean closeIfIdle(long nowNanos, long timeoutNanos) {
+        if (closed || nowNanos - lastUsed < timeoutNanos) {
+            return false;
+        }
+        closed = true;
+        try {
+            raf.close();
+        } catch (IOException ex) {
+            // Nothing was written for a while, there's nothing left to lose
+        }
+        return true;
+    }
+
+    /**
+     * Close the file, first flushing it to the storage device if <code>sync</code> is set
+     */
+    public synchronized void close(boolean sync) throws IOException {
+        closed = true;
+        try {
+            if (sync && channel.isOpen()) {
+                channel.force(true);
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        close(false);
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+    }
+}
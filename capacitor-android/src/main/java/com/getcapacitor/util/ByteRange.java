@@ -0,0 +1,98 @@
+package com.getcapacitor.util;
+
+/**
+ * A single byte range from an HTTP <code>Range</code> header, resolved against
+ * the length of the resource it applies to.
+ */
+public class ByteRange {
+    private static final String UNIT_PREFIX = "bytes=";
+
+    public static final ByteRange NOT_SATISFIABLE = new ByteRange(-1, -1);
+
+    private final long start;
+    private final long end;
+
+    private ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Parse a <code>Range</code> header value such as <code>bytes=100-199</code>,
+     * <code>bytes=100-</code> or <code>bytes=-100</code>.
+     *
+     * @param header the Range header value
+     * @param totalLength the length of the resource in bytes
+     * @return the resolved range, {@link #NOT_SATISFIABLE} if the range lies outside the
+     * resource, or null if the header is malformed or asks for several ranges, in which
+     * case it should be ignored and the whole resource served
+     */
+    public static ByteRange parse(String header, long totalLength) {
+        if (header == null) {
+            return null;
+        }
+        header = header.trim();
+        if (!header.regionMatches(true, 0, UNIT_PREFIX, 0, UNIT_PREFIX.length())) {
+            return null;
+        }
+        String spec = header.substring(UNIT_PREFIX.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0 || spec.indexOf(',') >= 0) {
+            return null;
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                if (last.isEmpty()) {
+                    return null;
+                }
+                long suffixLength = Long.parseLong(last);
+                if (suffixLength <= 0 || totalLength <= 0) {
+                    return NOT_SATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, totalLength - suffixLength), totalLength - 1);
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (start < 0 || end < start) {
+                return null;
+            }
+            if (start >= totalLength) {
+                return NOT_SATISFIABLE;
+            }
+            return new ByteRange(start, Math.min(end, totalLength - 1));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    public boolean isSatisfiable() {
+        return this != NOT_SATISFIABLE;
+    }
+
+    /**
+     * @return the first byte of the range
+     */
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return the last byte of the range, inclusive
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * @return the number of bytes in the range
+     */
+    public long getLength() {
+        return end - start + 1;
+    }
+}
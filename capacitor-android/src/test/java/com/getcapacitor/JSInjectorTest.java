@@ -0,0 +1,100 @@
+package com.getcapacitor;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class JSInjectorTest {
+  private static final String SCRIPT = "<script type=\"text/javascript\">G\n\nC\n\nP\n\n\n\n\n\n\n\n</script>";
+
+  private final JSInjector injector = new JSInjector("G", "C", "P");
+
+  @Test
+  public void testInjectAfterHeadOpen() throws IOException {
+    String html = "<html><head><title>t</title></head><body></body></html>";
+    String expected = "<html><head>\n" + SCRIPT + "\n<title>t</title></head><body></body></html>";
+    assertEquals(expected, read(injector.getInjectedStream(stream(html))));
+  }
+
+  @Test
+  public void testInjectBeforeHeadCloseWhenHeadHasAttributes() throws IOException {
+    String html = "<html><head lang=\"en\"><title>t</title></head><body></body></html>";
+    String expected = "<html><head lang=\"en\"><title>t</title>" + SCRIPT + "\n</head><body></body></html>";
+    assertEquals(expected, read(injector.getInjectedStream(stream(html))));
+  }
+
+  @Test
+  public void testInjectAcrossReadBoundaries() throws IOException {
+    String html = "<html><head><title>t</title></head><body></body></html>";
+    String expected = "<html><head>\n" + SCRIPT + "\n<title>t</title></head><body></body></html>";
+    assertEquals(expected, read(injector.getInjectedStream(new OneByteInputStream(stream(html)))));
+  }
+
+  @Test
+  public void testInjectLargePage() throws IOException {
+    StringBuilder body = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      body.append("<p>").append(i).append("</p>");
+    }
+    String padding = "<!--" + new String(new char[20000]).replace('\0', 'x') + "-->";
+    String html = "<html>" + padding + "<head></head><body>" + body + "</body></html>";
+    String expected = "<html>" + padding + "<head>\n" + SCRIPT + "\n</head><body>" + body + "</body></html>";
+    assertEquals(expected, read(injector.getInjectedStream(stream(html))));
+  }
+
+  @Test
+  public void testInjectedDocumentIsCachedPerPath() throws IOException {
+    final int[] opens = {0};
+    JSInjector.DocumentOpener opener = new JSInjector.DocumentOpener() {
+      @Override
+      public InputStream open() {
+        opens[0]++;
+        return stream("<html><head></head></html>");
+      }
+    };
+    String expected = "<html><head>\n" + SCRIPT + "\n</head></html>";
+
+    assertEquals(expected, read(injector.getInjectedDocument("/a/index.html", opener)));
+    assertEquals(expected, read(injector.getInjectedDocument("/a/index.html", opener)));
+    assertEquals(1, opens[0]);
+
+    injector.getInjectedDocument("/b/index.html", opener);
+    assertEquals(2, opens[0]);
+
+    injector.clearDocumentCache();
+    injector.getInjectedDocument("/b/index.html", opener);
+    assertEquals(3, opens[0]);
+  }
+
+  private static InputStream stream(String s) {
+    return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String read(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[1000];
+    int n;
+    while ((n = in.read(buffer)) != -1) {
+      out.write(buffer, 0, n);
+    }
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private static class OneByteInputStream extends FilterInputStream {
+    OneByteInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      return super.read(b, off, Math.min(len, 1));
+    }
+  }
+}
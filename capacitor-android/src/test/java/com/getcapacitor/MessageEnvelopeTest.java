@@ -0,0 +1,112 @@
+package com.getcapacitor;
+
+import org.json.JSONException;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class MessageEnvelopeTest {
+
+  @Test
+  public void readsEnvelopeFields() throws Exception {
+    MessageEnvelope message = MessageEnvelope.parse(
+        "{\"callbackId\":\"123\", \"pluginId\":\"Filesystem\", \"methodName\":\"readFile\", \"options\":{\"path\":\"a.txt\"}}");
+
+    assertEquals("123", message.getString("callbackId"));
+    assertEquals("Filesystem", message.getString("pluginId"));
+    assertEquals("readFile", message.getString("methodName"));
+    assertNull(message.getString("type"));
+  }
+
+  @Test
+  public void decodesEscapedStrings() throws Exception {
+    MessageEnvelope message = MessageEnvelope.parse("{\"type\":\"js\\\"error\\u0021\",\"n\":42}");
+
+    assertEquals("js\"error!", message.getString("type"));
+    assertEquals("42", message.getString("n"));
+  }
+
+  @Test
+  public void readsLargeStringsOnDemand() throws Exception {
+    StringBuilder args = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      args.append("\\\"x\\\"");
+    }
+    MessageEnvelope message = MessageEnvelope.parse("{\"type\":\"cordova\",\"actionArgs\":\"" + args + "\"}");
+
+    String actionArgs = message.getString("actionArgs");
+    assertEquals(3000, actionArgs.length());
+    assertEquals("\"x\"", actionArgs.substring(0, 3));
+  }
+
+  @Test
+  public void decodesStringsBeforeLargePayloads() throws Exception {
+    StringBuilder payload = new StringBuilder();
+    for (int i = 0; i < 100000; i++) {
+      payload.append("\\\\");
+    }
+    MessageEnvelope message = MessageEnvelope.parse(
+        "{\"type\":\"a\\tb\",\"callbackId\":\"plain\",\"actionArgs\":\"" + payload + "\"}");
+
+    assertEquals("a\tb", message.getString("type"));
+    assertEquals("plain", message.getString("callbackId"));
+    assertEquals(100000, message.getString("actionArgs").length());
+  }
+
+  @Test
+  public void parsesOptionsFromMessageText() throws Exception {
+    MessageEnvelope message = MessageEnvelope.parse(
+        "{\"options\": {\"path\":\"a}b\", \"nested\":{\"list\":[1,{\"x\":\"]\"}]}}, \"callbackId\":\"1\"}");
+
+    JSObject options = message.getObject("options");
+    assertEquals("a}b", options.getString("path"));
+    assertEquals("]", options.getJSONObject("nested").getJSONArray("list").getJSONObject(1).getString("x"));
+    assertEquals("1", message.getString("callbackId"));
+    assertNull(message.getObject("missing"));
+  }
+
+  @Test
+  public void parsesMessageArrays() throws Exception {
+    List<MessageEnvelope> messages = MessageEnvelope.parseArray(
+        "[{\"callbackId\":\"1\",\"options\":{}}, {\"callbackId\":\"2\",\"options\":{\"a\":true}}]");
+
+    assertEquals(2, messages.size());
+    assertEquals("1", messages.get(0).getString("callbackId"));
+    assertEquals(true, messages.get(1).getObject("options").getBoolean("a"));
+    assertEquals("{\"callbackId\":\"1\",\"options\":{}}", messages.get(0).toString());
+    assertEquals(0, MessageEnvelope.parseArray("[ ]").size());
+  }
+
+  @Test
+  public void readsValuesOfLaterMessagesInABatch() throws Exception {
+    StringBuilder batch = new StringBuilder("[");
+    for (int i = 0; i < 100; i++) {
+      if (i > 0) {
+        batch.append(',');
+      }
+      batch.append("{\"callbackId\":\"").append(i).append("\",\"options\":{\"n\":").append(i).append("}}");
+    }
+    batch.append(']');
+    List<MessageEnvelope> messages = MessageEnvelope.parseArray(batch.toString());
+
+    assertEquals(99, messages.get(99).getObject("options").getInt("n"));
+    assertEquals("99", messages.get(99).getString("callbackId"));
+  }
+
+  @Test
+  public void rejectsMalformedMessages() {
+    String[] malformed = { "", "[]", "{\"a\":", "{\"a\":\"b}", "{\"a\" 1}", "{a:1}", "{\"a\":1} x" };
+    for (String json : malformed) {
+      try {
+        MessageEnvelope.parse(json);
+        fail("Expected an error for " + json);
+      } catch (JSONException ex) {
+        // expected
+      }
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package com.getcapacitor;
+
+import android.webkit.WebView;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class MessageHandlerTest {
+
+    private Bridge bridge;
+    private WebView webView;
+    private MessageHandler handler;
+
+    @Before
+    public void setUp() throws Exception {
+        // Message handling logs through android.util.Log, which doesn't run in unit tests
+        Logger.init(new CapConfig(null, new JSONObject("{\"hideLogs\":true}")));
+        bridge = mock(Bridge.class);
+        webView = mock(WebView.class);
+        handler = new MessageHandler(bridge, webView, null);
+    }
+
+    @After
+    public void tearDown() {
+        Logger.init(null);
+    }
+
+    @Test
+    public void dispatchesEachPostedMessageInOrder() throws Exception {
+        handler.postMessages("[" +
+            "{\"callbackId\":\"1\",\"pluginId\":\"Filesystem\",\"methodName\":\"readFile\",\"options\":{\"path\":\"a.txt\"}}," +
+            "{\"callbackId\":\"2\",\"pluginId\":\"Device\",\"methodName\":\"getInfo\",\"options\":{}}" +
+            "]");
+
+        ArgumentCaptor<PluginCall> calls = ArgumentCaptor.forClass(PluginCall.class);
+        InOrder order = inOrder(bridge);
+        order.verify(bridge).callPluginMethod(eq("Filesystem"), eq("readFile"), calls.capture());
+        order.verify(bridge).callPluginMethod(eq("Device"), eq("getInfo"), calls.capture());
+        assertEquals("1", calls.getAllValues().get(0).getCallbackId());
+        assertEquals("a.txt", calls.getAllValues().get(0).getString("path"));
+        assertEquals("2", calls.getAllValues().get(1).getCallbackId());
+    }
+
+    @Test
+    public void dispatchesAPostedMessageLikeABatchOfOne() {
+        handler.postMessage("{\"callbackId\":\"1\",\"pluginId\":\"Device\",\"methodName\":\"getInfo\",\"options\":{}}");
+        handler.postMessages("[]");
+
+        verify(bridge, times(1)).callPluginMethod(eq("Device"), eq("getInfo"), any(PluginCall.class));
+    }
+
+    @Test
+    public void collapsesProgressWithTheSameKey() {
+        PluginCall call = call("1");
+
+        call.progress(result(1), "a");
+        call.progress(result(2), "a");
+
+        verify(webView, times(1)).postOnAnimation(any(Runnable.class));
+        verify(webView, never()).post(any(Runnable.class));
+        String script = flush();
+        assertFalse(script.contains("\"n\":1"));
+        assertTrue(script.contains("\"n\":2"));
+    }
+
+    @Test
+    public void keepsProgressWithDifferentKeys() {
+        PluginCall call = call("1");
+
+        call.progress(result(1), "a");
+        call.progress(result(2), "b");
+
+        String script = flush();
+        assertOrder(script, "\"n\":1", "\"n\":2");
+    }
+
+    @Test
+    public void deliversSupersedingProgressAfterEarlierResults() {
+        PluginCall first = call("1");
+        PluginCall second = call("2");
+
+        first.progress(result(1), "a");
+        second.resolve(result(2));
+        first.progress(result(3), "a");
+
+        String script = flush();
+        assertFalse(script.contains("\"n\":1"));
+        assertOrder(script, "\"n\":2", "\"n\":3");
+    }
+
+    @Test
+    public void neverCollapsesOtherResults() {
+        PluginCall call = call("1");
+
+        call.progress(result(1), null);
+        call.resolve(result(2));
+        call.resolve(result(3));
+
+        verify(webView, times(1)).post(any(Runnable.class));
+        String script = flush();
+        assertOrder(script, "\"n\":1", "\"n\":2", "\"n\":3");
+    }
+
+    private PluginCall call(String callbackId) {
+        return new PluginCall(handler, "Test", callbackId, "method", new JSObject());
+    }
+
+    private static JSObject result(int n) {
+        JSObject data = new JSObject();
+        data.put("n", n);
+        return data;
+    }
+
+    /**
+     * Run the flushes the handler scheduled on the WebView and return the single script they sent
+     */
+    private String flush() {
+        List<Runnable> scheduled = new ArrayList<>();
+        ArgumentCaptor<Runnable> posted = ArgumentCaptor.forClass(Runnable.class);
+        verify(webView, atLeast(0)).post(posted.capture());
+        scheduled.addAll(posted.getAllValues());
+        ArgumentCaptor<Runnable> postedOnAnimation = ArgumentCaptor.forClass(Runnable.class);
+        verify(webView, atLeast(0)).postOnAnimation(postedOnAnimation.capture());
+        scheduled.addAll(postedOnAnimation.getAllValues());
+        for (Runnable runnable : scheduled) {
+            runnable.run();
+        }
+
+        ArgumentCaptor<String> script = ArgumentCaptor.forClass(String.class);
+        verify(webView, atLeastOnce()).evaluateJavascript(script.capture(), isNull());
+        assertEquals(1, script.getAllValues().size());
+        return script.getValue();
+    }
+
+    private static void assertOrder(String script, String... parts) {
+        int last = -1;
+        for (String part : parts) {
+            int index = script.indexOf(part);
+            assertTrue(part + " is missing or out of order", index > last);
+            last = index;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.getcapacitor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PluginExecutorTest {
+
+  private ExecutorService defaultThread;
+  private ExecutorService ioPool;
+  private PluginExecutor executor;
+
+  @Before
+  public void setUp() {
+    defaultThread = Executors.newSingleThreadExecutor();
+    ioPool = Executors.newFixedThreadPool(4);
+    executor = new PluginExecutor(defaultThread, ioPool);
+  }
+
+  @After
+  public void tearDown() {
+    defaultThread.shutdownNow();
+    ioPool.shutdownNow();
+  }
+
+  @Test
+  public void runsTasksOfAPluginInOrderOnTheIoLane() throws Exception {
+    final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    final CountDownLatch done = new CountDownLatch(50);
+    for (int i = 0; i < 50; i++) {
+      final int index = i;
+      executor.execute(PluginExecutor.LANE_IO, "Filesystem", new Runnable() {
+        @Override
+        public void run() {
+          int now = running.incrementAndGet();
+          maxRunning.set(Math.max(maxRunning.get(), now));
+          order.add(index);
+          Thread.yield();
+          running.decrementAndGet();
+          done.countDown();
+        }
+      });
+    }
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    assertEquals(1, maxRunning.get());
+    for (int i = 0; i < 50; i++) {
+      assertEquals(i, (int) order.get(i));
+    }
+  }
+
+  @Test
+  public void unorderedTasksDontWaitForOrderedOnes() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(2);
+    executor.execute(PluginExecutor.LANE_IO, "Filesystem", new Runnable() {
+      @Override
+      public void run() {
+        try {
+          if (release.await(5, TimeUnit.SECONDS)) {
+            done.countDown();
+          }
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+    // Would never start if it queued behind the blocked task
+    executor.execute(PluginExecutor.LANE_IO, null, new Runnable() {
+      @Override
+      public void run() {
+        release.countDown();
+        done.countDown();
+      }
+    });
+
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void runsDifferentPluginsAtTheSameTime() throws Exception {
+    final CyclicBarrier barrier = new CyclicBarrier(2);
+    final CountDownLatch met = new CountDownLatch(2);
+    for (String plugin : new String[] { "Filesystem", "FileCrypto" }) {
+      executor.execute(PluginExecutor.LANE_IO, plugin, new Runnable() {
+        @Override
+        public void run() {
+          try {
+            barrier.await(5, TimeUnit.SECONDS);
+            met.countDown();
+          } catch (Exception ex) {
+            // the other task never ran alongside
+          }
+        }
+      });
+    }
+
+    assertTrue(met.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void countsTasksPerLane() throws Exception {
+    final CountDownLatch done = new CountDownLatch(5);
+    Runnable task = new Runnable() {
+      @Override
+      public void run() {
+        done.countDown();
+      }
+    };
+    for (int i = 0; i < 3; i++) {
+      executor.execute(PluginExecutor.LANE_IO, "Filesystem", task);
+    }
+    executor.execute(task);
+    executor.execute(PluginExecutor.LANE_DEFAULT, "Device", task);
+    assertTrue(done.await(5, TimeUnit.SECONDS));
+    executor.shutdown();
+    assertTrue(ioPool.awaitTermination(5, TimeUnit.SECONDS));
+    defaultThread.shutdown();
+    assertTrue(defaultThread.awaitTermination(5, TimeUnit.SECONDS));
+
+    PluginExecutor.LaneStats io = executor.getStats().get(PluginExecutor.LANE_IO);
+    PluginExecutor.LaneStats main = executor.getStats().get(PluginExecutor.LANE_DEFAULT);
+    assertEquals(3, io.getCompleted());
+    assertEquals(0, io.getQueued());
+    assertEquals(0, io.getRunning());
+    assertEquals(2, main.getCompleted());
+  }
+}
@@ -0,0 +1,86 @@
+package com.getcapacitor.plugin.filesystem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+
+import javax.crypto.AEADBadTagException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ChunkCipherTest {
+
+    private static final byte[] KEY = new byte[32];
+    private static final byte[] IV = new byte[ChunkCipher.IV_LENGTH];
+
+    private File plain;
+    private File encrypted;
+    private byte[] content;
+
+    @Before
+    public void setUp() throws Exception {
+        content = new byte[200 * 1024 + 5];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        plain = write("plain", content);
+    }
+
+    @After
+    public void tearDown() {
+        plain.delete();
+        if (encrypted != null) {
+            encrypted.delete();
+        }
+    }
+
+    @Test
+    public void roundTripsARegion() throws Exception {
+        ByteArrayOutputStream ciphertext = new ByteArrayOutputStream();
+        FileInputStream in = new FileInputStream(plain);
+        byte[] tag = ChunkCipher.encrypt(in.getChannel(), 1000, 100000L, ciphertext, KEY, IV, "aad".getBytes());
+        in.close();
+        assertEquals(100000, ciphertext.size());
+        assertEquals(ChunkCipher.TAG_LENGTH, tag.length);
+
+        encrypted = write("encrypted", ciphertext.toByteArray());
+        ByteArrayOutputStream decrypted = new ByteArrayOutputStream();
+        in = new FileInputStream(encrypted);
+        ChunkCipher.decrypt(in.getChannel(), 0, null, decrypted, KEY, IV, tag, "aad".getBytes());
+        in.close();
+        assertArrayEquals(Arrays.copyOfRange(content, 1000, 101000), decrypted.toByteArray());
+    }
+
+    @Test(expected = AEADBadTagException.class)
+    public void rejectsTamperedData() throws Exception {
+        ByteArrayOutputStream ciphertext = new ByteArrayOutputStream();
+        FileInputStream in = new FileInputStream(plain);
+        byte[] tag = ChunkCipher.encrypt(in.getChannel(), 0, null, ciphertext, KEY, IV, null);
+        in.close();
+
+        byte[] tampered = ciphertext.toByteArray();
+        tampered[10] ^= 1;
+        encrypted = write("encrypted", tampered);
+        in = new FileInputStream(encrypted);
+        try {
+            ChunkCipher.decrypt(in.getChannel(), 0, null, new ByteArrayOutputStream(), KEY, IV, tag, null);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static File write(String prefix, byte[] data) throws Exception {
+        File file = File.createTempFile(prefix, ".bin");
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(data);
+        out.close();
+        return file;
+    }
+}
@@ -0,0 +1,87 @@
+package com.getcapacitor.plugin.filesystem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkedFileTest {
+
+    private File file;
+    private File bitmapFile;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("chunked", ".bin");
+        file.delete();
+        bitmapFile = new File(file.getPath() + ".chunks");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        bitmapFile.delete();
+    }
+
+    @Test
+    public void assemblesChunksOutOfOrder() throws Exception {
+        ChunkedFile chunkedFile = new ChunkedFile("c", file, 10, 4);
+        assertEquals(3, chunkedFile.getChunkCount());
+        assertEquals(10, file.length());
+
+        chunkedFile.writeChunk(2, "89".getBytes());
+        chunkedFile.writeChunk(0, "0123".getBytes());
+        assertFalse(chunkedFile.isComplete());
+        chunkedFile.writeChunk(1, "4567".getBytes());
+        assertTrue(chunkedFile.isComplete());
+        chunkedFile.close();
+
+        assertFalse(bitmapFile.exists());
+        byte[] content = new byte[10];
+        FileInputStream in = new FileInputStream(file);
+        assertEquals(10, in.read(content));
+        in.close();
+        assertArrayEquals("0123456789".getBytes(), content);
+    }
+
+    @Test
+    public void resumesFromPersistedBitmap() throws Exception {
+        ChunkedFile chunkedFile = new ChunkedFile("c", file, 10, 2);
+        chunkedFile.writeChunk(0, "01".getBytes());
+        chunkedFile.writeChunk(1, "23".getBytes());
+        chunkedFile.writeChunk(3, "67".getBytes());
+        chunkedFile.close();
+        assertTrue(bitmapFile.exists());
+
+        ChunkedFile resumed = new ChunkedFile("c", file, 10, 2);
+        assertTrue(resumed.isResumed());
+        List<int[]> ranges = resumed.getCompletedRanges();
+        assertEquals(2, ranges.size());
+        assertArrayEquals(new int[] { 0, 2 }, ranges.get(0));
+        assertArrayEquals(new int[] { 3, 4 }, ranges.get(1));
+        resumed.close();
+
+        ChunkedFile restarted = new ChunkedFile("c", file, 10, 5);
+        assertFalse(restarted.isResumed());
+        assertEquals(0, restarted.getCompletedRanges().size());
+        restarted.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsChunksOfTheWrongSize() throws Exception {
+        ChunkedFile chunkedFile = new ChunkedFile("c", file, 10, 4);
+        try {
+            chunkedFile.writeChunk(2, "890".getBytes());
+        } finally {
+            chunkedFile.close();
+        }
+    }
+}
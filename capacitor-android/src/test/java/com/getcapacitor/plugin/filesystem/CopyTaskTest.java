@@ -0,0 +1,137 @@
+package com.getcapacitor.plugin.filesystem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.getcapacitor.plugin.filesystem.TempFiles.createDir;
+import static com.getcapacitor.plugin.filesystem.TempFiles.delete;
+import static com.getcapacitor.plugin.filesystem.TempFiles.write;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CopyTaskTest {
+
+    private File root;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        root = createDir("copytask");
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+        delete(root);
+    }
+
+    @Test
+    public void copiesDirectoryTreesAndReportsProgress() throws Exception {
+        File src = new File(root, "src");
+        write(new File(src, "a.txt"), 100);
+        write(new File(src, "nested/b.txt"), 50);
+        new File(src, "empty").mkdirs();
+        File dst = new File(root, "dst");
+
+        final long[] last = new long[4];
+        new CopyTask(src, dst, executor, new CopyTask.ProgressListener() {
+            @Override
+            public synchronized void onProgress(long bytesCopied, long totalBytes, int filesCopied, int totalFiles) {
+                last[0] = Math.max(last[0], bytesCopied);
+                last[1] = totalBytes;
+                last[2] = Math.max(last[2], filesCopied);
+                last[3] = totalFiles;
+            }
+        }).run();
+
+        assertEquals(100, new File(dst, "a.txt").length());
+        assertEquals(50, new File(dst, "nested/b.txt").length());
+        assertTrue(new File(dst, "empty").isDirectory());
+        assertEquals(150, last[0]);
+        assertEquals(150, last[1]);
+        assertEquals(2, last[2]);
+        assertEquals(2, last[3]);
+    }
+
+    @Test
+    public void stopsWhenCancelledMidCopy() throws Exception {
+        // Larger than one slice, so the copy is still running after the first progress report
+        File src = new File(root, "big.bin");
+        write(src, 9 * 1024 * 1024);
+        File dst = new File(root, "copy.bin");
+
+        final CopyTask[] task = new CopyTask[1];
+        final long[] copiedWhenCancelled = new long[1];
+        task[0] = new CopyTask(src, dst, executor, new CopyTask.ProgressListener() {
+            @Override
+            public void onProgress(long bytesCopied, long totalBytes, int filesCopied, int totalFiles) {
+                if (bytesCopied > 0 && copiedWhenCancelled[0] == 0) {
+                    copiedWhenCancelled[0] = bytesCopied;
+                    task[0].cancel();
+                }
+            }
+        });
+        try {
+            task[0].run();
+            fail("Expected the copy to be cancelled");
+        } catch (CopyTask.CancelledException ex) {
+            // expected
+        }
+
+        assertTrue(copiedWhenCancelled[0] < src.length());
+        assertFalse(dst.exists());
+        assertTrue(src.exists());
+    }
+
+    @Test
+    public void throwsTheFailureRatherThanTheFilesItStopped() throws Exception {
+        // Files larger than one slice, so they are still running when the bad one fails
+        File src = new File(root, "src");
+        write(new File(src, "a.bin"), 9 * 1024 * 1024);
+        write(new File(src, "b.bin"), 1);
+        write(new File(src, "c.bin"), 9 * 1024 * 1024);
+        write(new File(src, "d.bin"), 9 * 1024 * 1024);
+        File dst = new File(root, "dst");
+        // A directory in the way of b.bin makes it fail
+        final File bad = new File(dst, "b.bin");
+        bad.mkdirs();
+
+        Executor threadPerFile = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                new Thread(command).start();
+            }
+        };
+        try {
+            new CopyTask(src, dst, threadPerFile, new CopyTask.ProgressListener() {
+                @Override
+                public void onProgress(long bytesCopied, long totalBytes, int filesCopied, int totalFiles) {
+                    // Hold the large files after their first slice until the bad one has failed
+                    long deadline = System.currentTimeMillis() + 5000;
+                    while (bytesCopied > 0 && bad.exists() && System.currentTimeMillis() < deadline) {
+                        Thread.yield();
+                    }
+                }
+            }).run();
+            fail("Expected the copy to fail");
+        } catch (CopyTask.CancelledException ex) {
+            fail("Expected the failure of b.bin, not a cancellation");
+        } catch (IOException ex) {
+            // expected
+        }
+
+        assertFalse(new File(dst, "a.bin").exists());
+        assertFalse(new File(dst, "c.bin").exists());
+        assertFalse(new File(dst, "d.bin").exists());
+    }
+}
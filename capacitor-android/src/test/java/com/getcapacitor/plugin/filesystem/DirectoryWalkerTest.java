@@ -0,0 +1,85 @@
+package com.getcapacitor.plugin.filesystem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.getcapacitor.plugin.filesystem.TempFiles.createDir;
+import static com.getcapacitor.plugin.filesystem.TempFiles.delete;
+import static com.getcapacitor.plugin.filesystem.TempFiles.write;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DirectoryWalkerTest {
+
+    private File root;
+
+    @Before
+    public void setUp() throws Exception {
+        root = createDir("walker");
+        write(new File(root, "a.txt"), 3);
+        write(new File(root, "sub/b.txt"), 5);
+        write(new File(root, "sub/deeper/c.txt"), 7);
+    }
+
+    @After
+    public void tearDown() {
+        delete(root);
+    }
+
+    @Test
+    public void walksTheWholeTreeInPages() throws Exception {
+        DirectoryWalker walker = new DirectoryWalker(root, Integer.MAX_VALUE);
+        List<String> paths = new ArrayList<>();
+        while (!walker.isDone()) {
+            List<DirectoryWalker.Entry> page = walker.next(2);
+            assertTrue(page.size() <= 2);
+            for (DirectoryWalker.Entry entry : page) {
+                paths.add(entry.getPath() + (entry.isDirectory() ? "/" : ":" + entry.getSize()));
+            }
+        }
+        Collections.sort(paths);
+
+        List<String> expected = new ArrayList<>();
+        Collections.addAll(expected, "a.txt:3", "sub/", "sub/b.txt:5", "sub/deeper/", "sub/deeper/c.txt:7");
+        assertEquals(expected, paths);
+    }
+
+    @Test
+    public void isDoneWhenAPageEndsOnTheLastEntry() throws Exception {
+        DirectoryWalker walker = new DirectoryWalker(root, Integer.MAX_VALUE);
+
+        assertEquals(4, walker.next(4).size());
+        assertFalse(walker.isDone());
+        assertEquals(1, walker.next(1).size());
+        assertTrue(walker.isDone());
+        assertTrue(walker.next(1).isEmpty());
+    }
+
+    @Test
+    public void isDoneAfterEmptyDirectories() throws Exception {
+        File empty = new File(root, "sub/deeper/empty");
+        empty.mkdirs();
+        DirectoryWalker walker = new DirectoryWalker(new File(root, "sub"), Integer.MAX_VALUE);
+
+        assertEquals(4, walker.next(4).size());
+        assertTrue(walker.isDone());
+    }
+
+    @Test
+    public void stopsAtMaxDepth() throws Exception {
+        DirectoryWalker walker = new DirectoryWalker(root, 1);
+        List<DirectoryWalker.Entry> entries = walker.next(100);
+        assertEquals(2, entries.size());
+        for (DirectoryWalker.Entry entry : entries) {
+            assertEquals(1, entry.getDepth());
+        }
+        assertTrue(walker.isDone());
+    }
+}
@@ -0,0 +1,90 @@
+package com.getcapacitor.plugin.filesystem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class FileHasherTest {
+
+    private File file;
+    private byte[] content;
+
+    @Before
+    public void setUp() throws Exception {
+        content = new byte[3 * 1024 * 1024 + 17];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        file = File.createTempFile("hasher", ".bin");
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(content);
+        out.close();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void hashesWholeFilesAndRanges() throws Exception {
+        FileHasher hasher = new FileHasher("SHA-256");
+        FileInputStream in = new FileInputStream(file);
+        try {
+            assertArrayEquals(sha256(0, content.length), hasher.hash(in.getChannel(), 0, null));
+            assertArrayEquals(sha256(100, 2000000), hasher.hash(in.getChannel(), 100, 2000000L));
+        } finally {
+            in.close();
+        }
+        assertArrayEquals(sha256(100, 2000000), hasher.hash(new ByteArrayInputStream(content), 100, 2000000L));
+    }
+
+    @Test
+    public void hashesRangesInParallel() throws Exception {
+        FileHasher hasher = new FileHasher("SHA-256");
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        FileInputStream in = new FileInputStream(file);
+        try {
+            List<byte[]> hashes = hasher.hashRanges(in.getChannel(),
+                    Arrays.asList(new long[] { 0, 1024 * 1024 }, new long[] { 1024 * 1024, 2 * 1024 * 1024 }, new long[] { 3 * 1024 * 1024, 17 }),
+                    executor);
+            assertEquals(3, hashes.size());
+            assertArrayEquals(sha256(0, 1024 * 1024), hashes.get(0));
+            assertArrayEquals(sha256(1024 * 1024, 2 * 1024 * 1024), hashes.get(1));
+            assertArrayEquals(sha256(3 * 1024 * 1024, 17), hashes.get(2));
+        } finally {
+            in.close();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void encodesHex() {
+        assertEquals("00ff10ab", FileHasher.toHex(new byte[] { 0, (byte) 0xff, 0x10, (byte) 0xab }));
+    }
+
+    @Test(expected = NoSuchAlgorithmException.class)
+    public void rejectsUnknownAlgorithms() throws Exception {
+        new FileHasher("NOPE-1");
+    }
+
+    private byte[] sha256(int offset, int length) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(content, offset, length);
+        return digest.digest();
+    }
+}
@@ -0,0 +1,108 @@
+package com.getcapacitor.plugin.filesystem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReadStreamTest {
+
+    private static final byte[] DATA = "0123456789".getBytes();
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("readstream", ".bin");
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(DATA);
+        out.close();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void readsOnlyWhileThereIsCredit() throws Exception {
+        FileInputStream in = new FileInputStream(file);
+        ReadStream stream = new ReadStream("s", in, in.getChannel(), 0, null, 4, 1);
+
+        assertEquals(10, stream.getSize());
+        assertArrayEquals("0123".getBytes(), stream.readChunk());
+        assertFalse(stream.hasCredit());
+        assertNull(stream.readChunk());
+
+        stream.grant(2);
+        assertEquals(4, stream.getPosition());
+        assertEquals(1, stream.getSequence());
+        assertArrayEquals("4567".getBytes(), stream.readChunk());
+        assertArrayEquals("89".getBytes(), stream.readChunk());
+        assertTrue(stream.isFinished());
+        stream.close();
+    }
+
+    @Test
+    public void rejectsNonPositiveGrants() throws Exception {
+        FileInputStream in = new FileInputStream(file);
+        ReadStream stream = new ReadStream("s", in, in.getChannel(), 0, null, 4, 1);
+
+        for (int count : new int[] { 0, -1 }) {
+            try {
+                stream.grant(count);
+                fail("Expected an error for " + count);
+            } catch (IllegalArgumentException ex) {
+                // expected
+            }
+        }
+        assertArrayEquals("0123".getBytes(), stream.readChunk());
+        assertFalse(stream.hasCredit());
+        stream.close();
+    }
+
+    @Test
+    public void readsRangesPositionally() throws Exception {
+        FileInputStream in = new FileInputStream(file);
+        ReadStream stream = new ReadStream("s", in, in.getChannel(), 3, 5L, 4, 10);
+
+        assertEquals(5, stream.getSize());
+        assertArrayEquals("3456".getBytes(), stream.readChunk());
+        assertArrayEquals("7".getBytes(), stream.readChunk());
+        assertTrue(stream.isFinished());
+        assertNull(stream.readChunk());
+        stream.close();
+    }
+
+    @Test
+    public void readsRangesFromStreams() throws Exception {
+        ReadStream stream = new ReadStream("s", new ByteArrayInputStream(DATA), null, 6, null, 3, 10);
+
+        assertEquals(-1, stream.getSize());
+        assertArrayEquals("678".getBytes(), stream.readChunk());
+        assertArrayEquals("9".getBytes(), stream.readChunk());
+        assertTrue(stream.isFinished());
+        stream.close();
+    }
+
+    @Test
+    public void finishesAtOffsetsPastTheEnd() throws Exception {
+        FileInputStream in = new FileInputStream(file);
+        ReadStream stream = new ReadStream("s", in, in.getChannel(), 20, null, 4, 1);
+
+        assertTrue(stream.isFinished());
+        assertNull(stream.readChunk());
+        stream.close();
+    }
+}
@@ -0,0 +1,47 @@
+package com.getcapacitor.plugin.filesystem;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Temporary file trees for the filesystem tests
+ */
+final class TempFiles {
+
+    private TempFiles() {
+    }
+
+    /**
+     * Create an empty temporary directory
+     */
+    static File createDir(String prefix) throws IOException {
+        File dir = File.createTempFile(prefix, "");
+        dir.delete();
+        dir.mkdirs();
+        return dir;
+    }
+
+    /**
+     * Write a file of the given size, creating its parent directories
+     */
+    static void write(File file, int size) throws IOException {
+        file.getParentFile().mkdirs();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[size]);
+        } finally {
+            out.close();
+        }
+    }
+
+    static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
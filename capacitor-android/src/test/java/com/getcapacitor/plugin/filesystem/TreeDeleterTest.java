@@ -0,0 +1,87 @@
+package com.getcapacitor.plugin.filesystem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static com.getcapacitor.plugin.filesystem.TempFiles.createDir;
+import static com.getcapacitor.plugin.filesystem.TempFiles.delete;
+import static com.getcapacitor.plugin.filesystem.TempFiles.write;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TreeDeleterTest {
+
+    private File root;
+    private File trashRoot;
+
+    @Before
+    public void setUp() throws Exception {
+        root = createDir("deleter");
+        trashRoot = createDir("trash");
+        for (int i = 0; i < 5; i++) {
+            write(new File(root, "dir" + i + "/file.txt"), 1);
+            write(new File(root, "dir" + i + "/nested/file.txt"), 1);
+        }
+        write(new File(root, "top.txt"), 1);
+    }
+
+    @After
+    public void tearDown() {
+        delete(root);
+        delete(trashRoot);
+    }
+
+    @Test
+    public void deletesTheWholeTreeAndCountsEntries() throws Exception {
+        // root, top.txt, and per dirN: itself, file.txt, nested, nested/file.txt
+        assertEquals(2 + 5 * 4, TreeDeleter.delete(root));
+        assertFalse(root.exists());
+    }
+
+    @Test
+    public void deletesATombstonedTree() throws Exception {
+        File tombstone = TreeDeleter.tombstone(root, trashRoot);
+        assertFalse(root.exists());
+        assertTrue(tombstone.isDirectory());
+        assertEquals(new File(trashRoot, TreeDeleter.TRASH_DIR), tombstone.getParentFile());
+
+        TreeDeleter.delete(tombstone);
+        assertFalse(tombstone.exists());
+    }
+
+    @Test
+    public void emptyTrashSweepsOnlyLeftoverTombstones() throws Exception {
+        File leftover = new File(trashRoot, TreeDeleter.TRASH_DIR + "/other-process-1");
+        write(new File(leftover, "file.txt"), 1);
+        File tombstone = TreeDeleter.tombstone(root, trashRoot);
+
+        assertEquals(2, TreeDeleter.emptyTrash(trashRoot));
+        assertFalse(leftover.exists());
+        assertTrue(tombstone.isDirectory());
+        assertEquals(0, TreeDeleter.emptyTrash(new File(trashRoot, "missing")));
+
+        TreeDeleter.delete(tombstone);
+    }
+
+    @Test
+    public void listingsSkipTheTrash() throws Exception {
+        TreeDeleter.tombstone(new File(root, "dir0"), root);
+
+        assertTrue(Arrays.asList(root.list()).contains(TreeDeleter.TRASH_DIR));
+        assertFalse(Arrays.asList(root.list(TreeDeleter.NOT_TRASH)).contains(TreeDeleter.TRASH_DIR));
+        for (DirectoryWalker.Entry entry : new DirectoryWalker(root, Integer.MAX_VALUE).next(100)) {
+            assertFalse(entry.getPath().startsWith(TreeDeleter.TRASH_DIR));
+        }
+        TreeDeleter.delete(root);
+    }
+
+    @Test
+    public void missingFilesRemoveNothing() throws Exception {
+        assertEquals(0, TreeDeleter.delete(new File(root, "missing")));
+    }
+}
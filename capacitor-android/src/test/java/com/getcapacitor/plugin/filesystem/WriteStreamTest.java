@@ -0,0 +1,111 @@
+package com.getcapacitor.plugin.filesystem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.channels.ClosedChannelException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WriteStreamTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("writestream", ".bin");
+        FileOutputStream out = new FileOutputStream(file);
+        out.write("old".getBytes());
+        out.close();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void writesSequentiallyAndAtPositions() throws Exception {
+        WriteStream stream = new WriteStream("w", file, false);
+
+        assertEquals(0, stream.write("0123".getBytes()));
+        stream.write("89".getBytes(), 8);
+        assertEquals(4, stream.write("45".getBytes()));
+        stream.write("67".getBytes(), 6);
+        assertEquals(10, stream.size());
+        stream.close(true);
+
+        assertArrayEquals("0123456789".getBytes(), read(file));
+    }
+
+    @Test
+    public void appendsToExistingContent() throws Exception {
+        WriteStream stream = new WriteStream("w", file, true);
+
+        assertEquals(3, stream.write("new".getBytes()));
+        stream.close();
+
+        assertArrayEquals("oldnew".getBytes(), read(file));
+    }
+
+    @Test
+    public void closesOnlyWhenIdle() throws Exception {
+        WriteStream stream = new WriteStream("w", file, false);
+        stream.write("a".getBytes());
+
+        assertFalse(stream.closeIfIdle(System.nanoTime(), 60000000000L));
+        stream.write("b".getBytes());
+        assertTrue(stream.closeIfIdle(System.nanoTime(), 0));
+        assertFalse(stream.closeIfIdle(System.nanoTime(), 0));
+
+        assertArrayEquals("ab".getBytes(), read(file));
+    }
+
+    @Test
+    public void rejectsWritesOnceClosed() throws Exception {
+        WriteStream stream = new WriteStream("w", file, false);
+        assertTrue(stream.closeIfIdle(System.nanoTime(), 0));
+
+        try {
+            stream.write("a".getBytes());
+            fail("Expected the write to fail");
+        } catch (ClosedChannelException ex) {
+            // expected
+        }
+        try {
+            stream.write("a".getBytes(), 0);
+            fail("Expected the write to fail");
+        } catch (ClosedChannelException ex) {
+            // expected
+        }
+        try {
+            stream.size();
+            fail("Expected size to fail");
+        } catch (ClosedChannelException ex) {
+            // expected
+        }
+        assertEquals(0, file.length());
+    }
+
+    private static byte[] read(File file) throws Exception {
+        byte[] data = new byte[(int) file.length()];
+        FileInputStream in = new FileInputStream(file);
+        try {
+            int read = 0;
+            while (read < data.length) {
+                read += in.read(data, read, data.length - read);
+            }
+        } finally {
+            in.close();
+        }
+        return data;
+    }
+}
@@ -0,0 +1,69 @@
+package com.getcapacitor.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ByteRangeTest {
+
+    @Test
+    public void testClosedRange() {
+        ByteRange range = ByteRange.parse("bytes=100-199", 1000);
+        assertTrue(range.isSatisfiable());
+        assertEquals(100, range.getStart());
+        assertEquals(199, range.getEnd());
+        assertEquals(100, range.getLength());
+    }
+
+    @Test
+    public void testClosedRangeIsClampedToLength() {
+        ByteRange range = ByteRange.parse("bytes=900-5000", 1000);
+        assertEquals(900, range.getStart());
+        assertEquals(999, range.getEnd());
+        assertEquals(100, range.getLength());
+    }
+
+    @Test
+    public void testOpenEndedRange() {
+        ByteRange range = ByteRange.parse("bytes=250-", 1000);
+        assertEquals(250, range.getStart());
+        assertEquals(999, range.getEnd());
+        assertEquals(750, range.getLength());
+    }
+
+    @Test
+    public void testSuffixRange() {
+        ByteRange range = ByteRange.parse("bytes=-100", 1000);
+        assertEquals(900, range.getStart());
+        assertEquals(999, range.getEnd());
+
+        ByteRange wholeFile = ByteRange.parse("bytes=-5000", 1000);
+        assertEquals(0, wholeFile.getStart());
+        assertEquals(1000, wholeFile.getLength());
+    }
+
+    @Test
+    public void testRangeOffsetsBeyondIntRange() {
+        long total = 6L * 1024 * 1024 * 1024;
+        ByteRange range = ByteRange.parse("bytes=5368709120-", total);
+        assertEquals(5368709120L, range.getStart());
+        assertEquals(total - 1, range.getEnd());
+    }
+
+    @Test
+    public void testNotSatisfiable() {
+        assertFalse(ByteRange.parse("bytes=1000-", 1000).isSatisfiable());
+        assertFalse(ByteRange.parse("bytes=-0", 1000).isSatisfiable());
+        assertFalse(ByteRange.parse("bytes=-10", 0).isSatisfiable());
+    }
+
+    @Test
+    public void testIgnoredHeaders() {
+        assertNull(ByteRange.parse(null, 1000));
+        assertNull(ByteRange.parse("items=0-10", 1000));
+        assertNull(ByteRange.parse("bytes=0-10,20-30", 1000));
+        assertNull(ByteRange.parse("bytes=10-5", 1000));
+        assertNull(ByteRange.parse("bytes=-", 1000));
+        assertNull(ByteRange.parse("bytes=abc-", 1000));
+    }
+}
@@ -6,6 +6,7 @@ import android.content.ContentUris;
 import android.content.Context;
 import android.content.pm.PackageManager;
 import android.net.Uri;
+import android.os.ParcelFileDescriptor;
 import android.provider.OpenableColumns;
 import android.util.Log;
 import android.database.Cursor;
@@ -19,12 +20,16 @@ import org.apache.cordova.CordovaInterface;
 import org.apache.cordova.CordovaPlugin;
 import org.apache.cordova.CordovaWebView;
 import org.apache.cordova.PermissionHelper;
+import org.apache.cordova.PluginResult;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.json.JSONException;
 
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import java.util.List;
 import java.io.File;
 
@@ -42,8 +47,22 @@ public class FilePath extends CordovaPlugin {
 
     private static final int RC_READ_EXTERNAL_STORAGE = 5;
 
+    private static final long COPY_SLICE_SIZE = 8 * 1024 * 1024;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     private static CallbackContext callback;
     private static String uriStr;
+    private static JSONObject options;
+
+    /**
+     * Receives the progress of a copy into the cache
+     */
+    private interface ProgressListener {
+        /**
+         * @param total the size of the content, or -1 if the provider doesn't know it
+         */
+        void onProgress(long copied, long total);
+    }
 
     public static final int READ_REQ_CODE = 0;
 
@@ -69,6 +88,7 @@ public class FilePath extends CordovaPlugin {
     public boolean execute(String action, JSONArray args, CallbackContext callbackContext) throws JSONException {
         this.callback = callbackContext;
         this.uriStr = args.getString(0);
+        this.options = args.optJSONObject(1);
 
         if (action.equals("resolveNativePath")) {
             if (PermissionHelper.hasPermission(this, READ)) {
@@ -92,33 +112,84 @@ public class FilePath extends CordovaPlugin {
         return false;
     }
 
-    public void resolveNativePath() throws JSONException {
+    /**
+     * Resolve the uri on the thread pool, as content that isn't a file on disk may have to be
+     * copied into the cache first.
+     *
+     * Options:
+     * copy: false to get the content:// uri back instead of copying it, so that it can be read
+     *       straight from the provider. Defaults to true.
+     * progress: true to get {type: "progress", copied, total} results while content is
+     *           copied. The final result is the path as usual, FilePath.js tells them apart.
+     */
+    public void resolveNativePath() {
+        final String uriStr = this.uriStr;
+        final CallbackContext callback = this.callback;
+        final boolean copy = this.options == null || this.options.optBoolean("copy", true);
+        final boolean progress = this.options != null && this.options.optBoolean("progress", false);
+
+        cordova.getThreadPool().execute(new Runnable() {
+            public void run() {
+                try {
+                    resolveNativePath(uriStr, callback, copy, progress);
+                } catch (JSONException e) {
+                    callback.error(e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void resolveNativePath(String uriStr, final CallbackContext callback, boolean copy, boolean progress) throws JSONException {
         JSONObject resultObj = new JSONObject();
         /* content:///... */
-        Uri pvUrl = Uri.parse(this.uriStr);
-
-        Log.d(TAG, "URI: " + this.uriStr);
+        Uri pvUrl = Uri.parse(uriStr);
+
+        Log.d(TAG, "URI: " + uriStr);
+
+        ProgressListener listener = null;
+        if (progress) {
+            listener = new ProgressListener() {
+                public void onProgress(long copied, long total) {
+                    JSONObject progressObj = new JSONObject();
+                    try {
+                        progressObj.put("type", "progress");
+                        progressObj.put("copied", copied);
+                        progressObj.put("total", total);
+                    } catch (JSONException e) {
+                        return;
+                    }
+                    PluginResult result = new PluginResult(PluginResult.Status.OK, progressObj);
+                    result.setKeepCallback(true);
+                    callback.sendPluginResult(result);
+                }
+            };
+        }
 
         Context appContext = this.cordova.getActivity().getApplicationContext();
-        String filePath = getPath(appContext, pvUrl);
+        String filePath = getPath(appContext, pvUrl, copy, listener);
 
         //check result; send error/success callback
-        if (filePath == GET_PATH_ERROR_ID) {
+        if (filePath == GET_PATH_ERROR_ID && !copy && "content".equalsIgnoreCase(pvUrl.getScheme())) {
+            Log.d(TAG, "Not copied: " + uriStr);
+
+            callback.success(uriStr);
+        }
+        else if (filePath == GET_PATH_ERROR_ID) {
             resultObj.put("code", GET_PATH_ERROR_CODE);
             resultObj.put("message", "Unable to resolve filesystem path.");
 
-            this.callback.error(resultObj);
+            callback.error(resultObj);
         }
         else if (filePath.equals(GET_CLOUD_PATH_ERROR_ID)) {
             resultObj.put("code", GET_CLOUD_PATH_ERROR_CODE);
             resultObj.put("message", "Files from cloud cannot be resolved to filesystem, download is required.");
 
-            this.callback.error(resultObj);
+            callback.error(resultObj);
         }
         else {
             Log.d(TAG, "Filepath: " + filePath);
 
-            this.callback.success("file://" + filePath);
+            callback.success("file://" + filePath);
         }
     }
 
@@ -303,8 +374,10 @@ public class FilePath extends CordovaPlugin {
      *
      * @param context The context.
      * @param uri The Uri to query.
+     * @param copy Whether content that isn't a file on disk may be copied into the cache.
+     * @param listener Receives the progress of that copy, or null.
      */
-    private static String getPath(final Context context, final Uri uri) {
+    private static String getPath(final Context context, final Uri uri, boolean copy, ProgressListener listener) {
 
         Log.d(TAG, "File - " +
                 "Authority: " + uri.getAuthority() +
@@ -386,7 +459,7 @@ public class FilePath extends CordovaPlugin {
                 return getDataColumn(context, contentUri, selection, selectionArgs);
             }
             else if(isGoogleDriveUri(uri)){
-                return getDriveFilePath(uri,context);
+                return copy ? getDriveFilePath(uri, context, listener) : null;
             }
         }
         // MediaStore (and general)
@@ -396,7 +469,7 @@ public class FilePath extends CordovaPlugin {
             if (isGooglePhotosUri(uri)) {
                 String contentPath = getContentFromSegments(uri.getPathSegments());
                 if (contentPath != "") {
-                    return getPath(context, Uri.parse(contentPath));
+                    return getPath(context, Uri.parse(contentPath), copy, listener);
                 }
                 else {
                     return null;
@@ -404,7 +477,7 @@ public class FilePath extends CordovaPlugin {
             }
 
             if(isGoogleDriveUri(uri) || isOneDriveUri(uri)){
-                return getDriveFilePath(uri,context);
+                return copy ? getDriveFilePath(uri, context, listener) : null;
             }
 
             return getDataColumn(context, uri, null, null);
@@ -417,7 +490,7 @@ public class FilePath extends CordovaPlugin {
         return null;
     }
 
-    private static String getDriveFilePath(Uri uri,Context context){
+    private static String getDriveFilePath(Uri uri, Context context, ProgressListener listener){
         Uri returnUri =uri;
         Cursor returnCursor = context.getContentResolver().query(returnUri, null, null, null, null);
         /*
@@ -429,30 +502,71 @@ public class FilePath extends CordovaPlugin {
         int sizeIndex = returnCursor.getColumnIndex(OpenableColumns.SIZE);
         returnCursor.moveToFirst();
         String name = (returnCursor.getString(nameIndex));
-        String size = (Long.toString(returnCursor.getLong(sizeIndex)));
+        long size = returnCursor.isNull(sizeIndex) ? -1 : returnCursor.getLong(sizeIndex);
+        returnCursor.close();
         File   file = new File(context.getCacheDir(),name);
         try {
-            InputStream inputStream = context.getContentResolver().openInputStream(uri);
-            FileOutputStream outputStream = new FileOutputStream(file);
-            int read = 0;
-            int maxBufferSize = 1 * 1024 * 1024;
-            int  bytesAvailable = inputStream.available();
-
-            //int bufferSize = 1024;
-            int bufferSize = Math.min(bytesAvailable, maxBufferSize);
-
-            final byte[] buffers = new byte[bufferSize];
-            while ((read = inputStream.read(buffers)) != -1) {
-                outputStream.write(buffers, 0, read);
-            }
-            Log.e("File Size","Size " + file.length());
-            inputStream.close();
-            outputStream.close();
-            Log.e("File Path","Path " + file.getPath());
-            Log.e("File Size","Size " + file.length());
+            copyContent(context, uri, file, size, listener);
+            Log.d(TAG, "Copied " + file.length() + " bytes to " + file.getPath());
         }catch (Exception e){
-            Log.e("Exception",e.getMessage());
+            Log.e(TAG, "Unable to copy " + uri, e);
+            file.delete();
+            return null;
         }
         return  file.getPath();
     }
+
+    /**
+     * Copy the content behind a uri to a file. When the provider hands out a regular file it's
+     * copied with FileChannel.transferTo, a slice at a time so that progress can be reported;
+     * pipes and other unsized descriptors are copied through a fixed size buffer.
+     *
+     * @param size The size the provider reported, used for progress when the descriptor has none.
+     */
+    private static void copyContent(Context context, Uri uri, File file, long size, ProgressListener listener) throws IOException {
+        ParcelFileDescriptor pfd = context.getContentResolver().openFileDescriptor(uri, "r");
+        if (pfd == null) {
+            throw new IOException("Unable to open " + uri);
+        }
+
+        long statSize = pfd.getStatSize();
+        InputStream in = new ParcelFileDescriptor.AutoCloseInputStream(pfd);
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            if (statSize >= 0) {
+                FileChannel src = ((FileInputStream) in).getChannel();
+                FileChannel dst = out.getChannel();
+                long position = 0;
+                while (position < statSize) {
+                    long transferred = src.transferTo(position, Math.min(COPY_SLICE_SIZE, statSize - position), dst);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                    if (listener != null) {
+                        listener.onProgress(position, statSize);
+                    }
+                }
+            } else {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                long copied = 0;
+                long reported = 0;
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    copied += read;
+                    if (listener != null && copied - reported >= COPY_SLICE_SIZE) {
+                        listener.onProgress(copied, size);
+                        reported = copied;
+                    }
+                }
+                if (listener != null) {
+                    listener.onProgress(copied, size);
+                }
+            }
+        } finally {
+            in.close();
+            out.close();
+        }
+    }
 }
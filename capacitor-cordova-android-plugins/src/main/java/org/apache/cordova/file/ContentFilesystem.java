@@ -20,8 +20,10 @@ package org.apache.cordova.file;
 
 import android.content.ContentResolver;
 import android.content.Context;
+import android.content.res.AssetFileDescriptor;
 import android.database.Cursor;
 import android.net.Uri;
+import android.os.ParcelFileDescriptor;
 import android.provider.DocumentsContract;
 import android.provider.MediaStore;
 import android.provider.OpenableColumns;
@@ -204,6 +206,26 @@ public class ContentFilesystem extends Filesystem {
         return null;
 	}
 
+    @Override
+    public void readFileAtURL(LocalFilesystemURL inputURL, long start, long end,
+                              ReadFileCallback readFileCallback) throws IOException {
+        Uri nativeUri = toNativeUri(inputURL);
+        AssetFileDescriptor assetFd = context.getContentResolver().openAssetFileDescriptor(nativeUri, "r");
+        if (assetFd == null) {
+            throw new FileNotFoundException("Unable to open " + nativeUri);
+        }
+        ParcelFileDescriptor pfd = assetFd.getParcelFileDescriptor();
+        if (pfd.getStatSize() < 0) {
+            // Pipes and sockets can't seek, so read through them the slow way
+            assetFd.close();
+            super.readFileAtURL(inputURL, start, end, readFileCallback);
+            return;
+        }
+        long length = assetFd.getLength() == AssetFileDescriptor.UNKNOWN_LENGTH ? -1 : assetFd.getLength();
+        readFileRange(new ParcelFileDescriptor.AutoCloseInputStream(pfd), assetFd.getStartOffset(), length,
+                start, end, resourceApi.getMimeType(nativeUri), readFileCallback);
+    }
+
     @Override
     public String filesystemPathForURL(LocalFilesystemURL url) {
         File f = resourceApi.mapUriToFile(toNativeUri(url));
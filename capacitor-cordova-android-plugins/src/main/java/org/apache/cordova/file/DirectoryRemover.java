@@ -0,0 +1,100 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+ */
+package org.apache.cordova.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Removes a directory tree on a small fork-join pool, one task per subdirectory, so trees of
+ * many small files don't have to be unlinked one at a time. Links are removed, not followed.
+ */
+class DirectoryRemover {
+    private static ForkJoinPool pool;
+
+    private static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())));
+        }
+        return pool;
+    }
+
+    /**
+     * Remove the directory and everything in it. Entries that can't be removed are skipped so
+     * the rest of the tree still goes; the first of them is reported at the end.
+     */
+    static void remove(File directory) throws FileExistsException {
+        RemoveTask task = new RemoveTask(directory, canonical(directory));
+        getPool().invoke(task);
+        if (task.failed != null) {
+            throw new FileExistsException("could not delete: " + task.failed.getName());
+        }
+    }
+
+    private static class RemoveTask extends RecursiveAction {
+        private final File dir;
+        private final File canonicalDir;
+        File failed;
+
+        RemoveTask(File dir, File canonicalDir) {
+            this.dir = dir;
+            this.canonicalDir = canonicalDir;
+        }
+
+        @Override
+        protected void compute() {
+            List<RemoveTask> subtasks = new ArrayList<RemoveTask>();
+            String[] names = dir.list();
+            if (names != null) {
+                for (String name : names) {
+                    File child = new File(dir, name);
+                    File canonicalChild = new File(canonicalDir, name);
+                    if (child.isDirectory() && canonical(child).equals(canonicalChild)) {
+                        RemoveTask task = new RemoveTask(child, canonicalChild);
+                        task.fork();
+                        subtasks.add(task);
+                    } else if (!child.delete() && failed == null) {
+                        failed = child;
+                    }
+                }
+            }
+            for (RemoveTask task : subtasks) {
+                task.join();
+                if (task.failed != null && failed == null) {
+                    failed = task.failed;
+                }
+            }
+            if (!dir.delete() && failed == null) {
+                failed = dir;
+            }
+        }
+    }
+
+    private static File canonical(File file) {
+        try {
+            return file.getCanonicalFile();
+        } catch (IOException e) {
+            return file.getAbsoluteFile();
+        }
+    }
+}
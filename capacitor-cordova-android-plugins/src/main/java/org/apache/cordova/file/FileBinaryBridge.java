@@ -0,0 +1,53 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+ */
+package org.apache.cordova.file;
+
+import android.webkit.JavascriptInterface;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JavaScript interface that lets FileWriter hand binary chunks to native without
+ * base64-encoding them. The data arrives as a string holding one byte per char
+ * (0-255), so it is a third smaller than base64 and converts straight to bytes.
+ */
+class FileBinaryBridge {
+    static final String INTERFACE_NAME = "cordovaFileBinary";
+
+    private final FileUtils filePlugin;
+
+    FileBinaryBridge(FileUtils filePlugin) {
+        this.filePlugin = filePlugin;
+    }
+
+    /**
+     * Write a chunk of binary data. The result is delivered to the cordova callback
+     * registered under callbackId, the same way as for the "write" action.
+     *
+     * @param callbackId    The cordova callback id to answer
+     * @param fileURL       The file to write to
+     * @param data          The bytes to write, one byte per char
+     * @param offset        The position to begin writing the file
+     * @param startedAt     When JS started the write (ms since the epoch), for the write stats
+     */
+    @JavascriptInterface
+    public void write(String callbackId, String fileURL, String data, int offset, long startedAt) {
+        filePlugin.writeBinary(callbackId, fileURL, data.getBytes(StandardCharsets.ISO_8859_1), offset, startedAt);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+ */
+package org.apache.cordova.file;
+
+import org.apache.cordova.LOG;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs file operations on a pool of its own rather than the thread pool every Cordova plugin
+ * shares. Operations are keyed by the files they act on. Operations sharing a key run one
+ * after the other in the order they were submitted; operations on different files run in
+ * parallel. An operation on several files, such as a move, waits for all of them.
+ *
+ * How long operations wait and run, and how deep the queue of their file was, is kept per
+ * action and logged every few hundred operations.
+ */
+class FileOpExecutor {
+    private static final String LOG_TAG = "FileUtils";
+    private static final int REPORT_INTERVAL_OPS = 500;
+
+    private final ExecutorService executor;
+    // Operations on each file in submission order, the first one running or waiting for its
+    // other files. A key is present while it has operations.
+    private final HashMap<String, ArrayDeque<Op>> queues = new HashMap<String, ArrayDeque<Op>>();
+    private final HashMap<String, OpStats> stats = new HashMap<String, OpStats>();
+
+    FileOpExecutor(int threads) {
+        final AtomicInteger count = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "FileUtils-io-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * @param keys    the files the operation acts on, or null if it may run at any time
+     * @param action  the name its statistics are kept under
+     */
+    void execute(String[] keys, String action, Runnable task) {
+        Op op = new Op(keys, statsFor(action), task);
+        synchronized (queues) {
+            for (String key : op.keys) {
+                ArrayDeque<Op> queue = queues.get(key);
+                if (queue == null) {
+                    queue = new ArrayDeque<Op>();
+                    queues.put(key, queue);
+                }
+                if (!queue.isEmpty()) {
+                    op.waitingFor++;
+                    op.queueDepth = Math.max(op.queueDepth, queue.size());
+                }
+                queue.add(op);
+            }
+            if (op.waitingFor > 0) {
+                return;
+            }
+        }
+        executor.execute(op);
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private void onFinished(Op op) {
+        List<Op> ready = new ArrayList<Op>();
+        synchronized (queues) {
+            for (String key : op.keys) {
+                ArrayDeque<Op> queue = queues.get(key);
+                queue.poll();
+                Op next = queue.peek();
+                if (next == null) {
+                    queues.remove(key);
+                } else if (--next.waitingFor == 0) {
+                    ready.add(next);
+                }
+            }
+        }
+        for (Op next : ready) {
+            executor.execute(next);
+        }
+    }
+
+    private OpStats statsFor(String action) {
+        synchronized (stats) {
+            OpStats s = stats.get(action);
+            if (s == null) {
+                s = new OpStats(action);
+                stats.put(action, s);
+            }
+            return s;
+        }
+    }
+
+    private class Op implements Runnable {
+        final String[] keys;
+        final OpStats stats;
+        final Runnable task;
+        final long submitted = System.nanoTime();
+        int queueDepth;
+        // Queues this operation isn't first in yet
+        int waitingFor;
+
+        Op(String[] keys, OpStats stats, Runnable task) {
+            // The same file twice would wait for itself
+            LinkedHashSet<String> distinct = new LinkedHashSet<String>();
+            if (keys != null) {
+                for (String key : keys) {
+                    if (key != null) {
+                        distinct.add(key);
+                    }
+                }
+            }
+            this.keys = distinct.toArray(new String[distinct.size()]);
+            this.stats = stats;
+            this.task = task;
+        }
+
+        public void run() {
+            long started = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                stats.record(queueDepth, started - submitted, System.nanoTime() - started);
+                onFinished(this);
+            }
+        }
+    }
+
+    /**
+     * Power of two histograms: bucket i counts values in [2^(i-1), 2^i), bucket 0 counts 0
+     */
+    static class OpStats {
+        private static final int BUCKETS = 16;
+
+        private final String action;
+        private final long[] queueDepths = new long[BUCKETS];
+        private final long[] waitMillis = new long[BUCKETS];
+        private final long[] runMillis = new long[BUCKETS];
+        private long count;
+
+        OpStats(String action) {
+            this.action = action;
+        }
+
+        synchronized void record(int queueDepth, long waitNanos, long runNanos) {
+            queueDepths[bucket(queueDepth)]++;
+            waitMillis[bucket(waitNanos / 1000000)]++;
+            runMillis[bucket(runNanos / 1000000)]++;
+            if (++count % REPORT_INTERVAL_OPS == 0) {
+                LOG.d(LOG_TAG, toString());
+            }
+        }
+
+        static int bucket(long value) {
+            int bucket = 64 - Long.numberOfLeadingZeros(Math.max(0, value));
+            return Math.min(bucket, BUCKETS - 1);
+        }
+
+        /**
+         * @return the exclusive upper bound of the bucket holding the given fraction of the values
+         */
+        static long percentile(long[] histogram, long count, double fraction) {
+            long target = (long) Math.ceil(count * fraction);
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= target) {
+                    return 1L << i;
+                }
+            }
+            return 1L << (histogram.length - 1);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format(Locale.US, "%s: %d ops, queue depth p50 <%d p99 <%d, wait p50 <%dms p99 <%dms, run p50 <%dms p99 <%dms",
+                    action, count,
+                    percentile(queueDepths, count, 0.5), percentile(queueDepths, count, 0.99),
+                    percentile(waitMillis, count, 0.5), percentile(waitMillis, count, 0.99),
+                    percentile(runMillis, count, 0.5), percentile(runMillis, count, 0.99));
+        }
+    }
+}
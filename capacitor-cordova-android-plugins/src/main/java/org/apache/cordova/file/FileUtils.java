@@ -26,6 +26,8 @@ import android.net.Uri;
 import android.os.Build;
 import android.os.Environment;
 import android.util.Base64;
+import android.view.View;
+import android.webkit.WebView;
 
 import org.apache.cordova.CallbackContext;
 import org.apache.cordova.CordovaInterface;
@@ -38,6 +40,7 @@ import org.apache.cordova.PluginResult;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -47,6 +50,7 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.security.Permission;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 
@@ -55,6 +59,9 @@ import java.util.HashSet;
  */
 public class FileUtils extends CordovaPlugin {
     private static final String LOG_TAG = "FileUtils";
+    private static final int DEFAULT_ENTRIES_PAGE_SIZE = 500;
+    // A multiple of 3, so that every chunk but the last encodes to base64 without padding
+    private static final int BASE64_CHUNK_SIZE = 48 * 1024;
 
     public static int NOT_FOUND_ERR = 1;
     public static int SECURITY_ERR = 2;
@@ -77,6 +84,7 @@ public class FileUtils extends CordovaPlugin {
     public static final int ACTION_GET_FILE = 0;
     public static final int ACTION_WRITE = 1;
     public static final int ACTION_GET_DIRECTORY = 2;
+    public static final int ACTION_OPEN_WRITER = 5;
 
     public static final int WRITE = 3;
     public static final int READ = 4;
@@ -106,6 +114,17 @@ public class FileUtils extends CordovaPlugin {
 
     private ArrayList<Filesystem> filesystems;
 
+    // Runs every file operation, in order per file URL
+    private FileOpExecutor fileOpExecutor;
+
+    private final LocalURLCache urlCache = new LocalURLCache();
+
+    // Open write sessions, keyed by the file URL they were opened with
+    private final HashMap<String, WriteSession> writeSessions = new HashMap<String, WriteSession>();
+
+    private final WriteStats base64WriteStats = new WriteStats("base64");
+    private final WriteStats binaryWriteStats = new WriteStats("binary");
+
     public void registerFilesystem(Filesystem fs) {
     	if (fs != null && filesystemForName(fs.name)== null) {
     		this.filesystems.add(fs);
@@ -175,6 +194,9 @@ public class FileUtils extends CordovaPlugin {
     	super.initialize(cordova, webView);
     	this.filesystems = new ArrayList<Filesystem>();
         this.pendingRequests = new PendingRequests();
+        int ioThreads = preferences.getInteger("androidfileiothreads",
+                Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())));
+        this.fileOpExecutor = new FileOpExecutor(Math.max(1, ioThreads));
 
     	String tempRoot = null;
     	String persistentRoot = null;
@@ -224,6 +246,12 @@ public class FileUtils extends CordovaPlugin {
 
             registerExtraFileSystems(getExtraFileSystemsPreference(activity), getAvailableFileSystems(activity));
 
+            // Let FileWriter send binary chunks without the base64 round trip of exec()
+            View view = webView.getView();
+            if (view instanceof WebView) {
+                ((WebView) view).addJavascriptInterface(new FileBinaryBridge(this), FileBinaryBridge.INTERFACE_NAME);
+            }
+
     		// Initialize static plugin reference for deprecated getEntry method
     		if (filePlugin == null) {
     			FileUtils.filePlugin = this;
@@ -243,6 +271,23 @@ public class FileUtils extends CordovaPlugin {
     	return filesystemForName(localURL.fsName);
     }
 
+    /* Parse a cdvfile: URL and find its filesystem, through the cache. Returns null for
+     * URLs that aren't cdvfile: URLs of an installed filesystem.
+     */
+    private LocalURLCache.Entry resolveLocalURL(String localURLstr) {
+        LocalURLCache.Entry entry = urlCache.get(localURLstr);
+        if (entry == null) {
+            LocalFilesystemURL url = LocalFilesystemURL.parse(localURLstr);
+            Filesystem fs = filesystemForURL(url);
+            if (fs == null) {
+                return null;
+            }
+            entry = new LocalURLCache.Entry(url, fs);
+            urlCache.put(localURLstr, entry);
+        }
+        return entry;
+    }
+
     @Override
     public Uri remapUri(Uri uri) {
         // Remap only cdvfile: URLs (not content:).
@@ -250,14 +295,13 @@ public class FileUtils extends CordovaPlugin {
             return null;
         }
         try {
-        	LocalFilesystemURL inputURL = LocalFilesystemURL.parse(uri);
-        	Filesystem fs = this.filesystemForURL(inputURL);
-        	if (fs == null) {
+        	LocalURLCache.Entry resolved = resolveLocalURL(uri.toString());
+        	if (resolved == null) {
         		return null;
         	}
-        	String path = fs.filesystemPathForURL(inputURL);
+        	String path = resolved.getPath();
         	if (path != null) {
-        		return Uri.parse("file://" + fs.filesystemPathForURL(inputURL));
+        		return Uri.parse("file://" + path);
         	}
         	return null;
         } catch (IllegalArgumentException e) {
@@ -276,7 +320,7 @@ public class FileUtils extends CordovaPlugin {
                     boolean b = DirectoryManager.testSaveLocationExists();
                     callbackContext.sendPluginResult(new PluginResult(PluginResult.Status.OK, b));
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("getFreeDiskSpace")) {
             threadhelper( new FileOp( ){
@@ -287,7 +331,7 @@ public class FileUtils extends CordovaPlugin {
                     long l = DirectoryManager.getFreeExternalStorageSpace();
                     callbackContext.sendPluginResult(new PluginResult(PluginResult.Status.OK, l));
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("testFileExists")) {
             threadhelper( new FileOp( ){
@@ -296,7 +340,7 @@ public class FileUtils extends CordovaPlugin {
                     boolean b = DirectoryManager.testFileExists(fname);
                     callbackContext.sendPluginResult(new PluginResult(PluginResult.Status.OK, b));
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("testDirectoryExists")) {
             threadhelper( new FileOp( ){
@@ -305,7 +349,7 @@ public class FileUtils extends CordovaPlugin {
                     boolean b = DirectoryManager.testFileExists(fname);
                     callbackContext.sendPluginResult(new PluginResult(PluginResult.Status.OK, b));
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("readAsText")) {
             threadhelper( new FileOp( ){
@@ -316,7 +360,7 @@ public class FileUtils extends CordovaPlugin {
                     String fname=args.getString(0);
                     readFileAs(fname, start, end, callbackContext, encoding, PluginResult.MESSAGE_TYPE_STRING);
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("readAsDataURL")) {
             threadhelper( new FileOp( ){
@@ -326,7 +370,7 @@ public class FileUtils extends CordovaPlugin {
                     String fname=args.getString(0);
                     readFileAs(fname, start, end, callbackContext, null, -1);
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("readAsArrayBuffer")) {
             threadhelper( new FileOp( ){
@@ -336,7 +380,7 @@ public class FileUtils extends CordovaPlugin {
                     String fname=args.getString(0);
                     readFileAs(fname, start, end, callbackContext, null, PluginResult.MESSAGE_TYPE_ARRAYBUFFER);
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("readAsBinaryString")) {
             threadhelper( new FileOp( ){
@@ -346,27 +390,53 @@ public class FileUtils extends CordovaPlugin {
                     String fname=args.getString(0);
                     readFileAs(fname, start, end, callbackContext, null, PluginResult.MESSAGE_TYPE_BINARYSTRING);
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("write")) {
             threadhelper( new FileOp( ){
                 public void run(JSONArray args) throws JSONException, FileNotFoundException, IOException, NoModificationAllowedException {
                     String fname=args.getString(0);
-                    String nativeURL = resolveLocalFileSystemURI(fname).getString("nativeURL");
                     String data=args.getString(1);
                     int offset=args.getInt(2);
                     Boolean isBinary=args.getBoolean(3);
+                    long startedAt=args.optLong(4);
 
-                    if(needPermission(nativeURL, WRITE)) {
+                    // Permission was already checked when an open writer was created
+                    if(getWriteSession(fname) == null && needPermission(resolveLocalFileSystemURI(fname).getString("nativeURL"), WRITE)) {
                         getWritePermission(rawArgs, ACTION_WRITE, callbackContext);
                     }
                     else {
-                        long fileSize = write(fname, data, offset, isBinary);
+                        long fileSize = write(fname, data, offset, isBinary, startedAt);
                         callbackContext.sendPluginResult(new PluginResult(PluginResult.Status.OK, fileSize));
                     }
 
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
+        }
+        else if (action.equals("openWriter")) {
+            threadhelper( new FileOp( ){
+                public void run(JSONArray args) throws JSONException, FileNotFoundException, IOException, NoModificationAllowedException {
+                    String fname=args.getString(0);
+                    String nativeURL = resolveLocalFileSystemURI(fname).getString("nativeURL");
+
+                    if(needPermission(nativeURL, WRITE)) {
+                        getWritePermission(rawArgs, ACTION_OPEN_WRITER, callbackContext);
+                    }
+                    else {
+                        long fileSize = openWriter(fname);
+                        callbackContext.sendPluginResult(new PluginResult(PluginResult.Status.OK, fileSize));
+                    }
+                }
+            }, action, rawArgs, callbackContext);
+        }
+        else if (action.equals("closeWriter")) {
+            threadhelper( new FileOp( ){
+                public void run(JSONArray args) throws JSONException, IOException {
+                    String fname=args.getString(0);
+                    long fileSize = closeWriter(fname);
+                    callbackContext.sendPluginResult(new PluginResult(PluginResult.Status.OK, fileSize));
+                }
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("truncate")) {
             threadhelper( new FileOp( ){
@@ -376,16 +446,16 @@ public class FileUtils extends CordovaPlugin {
                     long fileSize = truncateFile(fname, offset);
                     callbackContext.sendPluginResult(new PluginResult(PluginResult.Status.OK, fileSize));
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("requestAllFileSystems")) {
             threadhelper( new FileOp( ){
                 public void run(JSONArray args) throws IOException, JSONException {
                     callbackContext.success(requestAllFileSystems());
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         } else if (action.equals("requestAllPaths")) {
-            cordova.getThreadPool().execute(
+            fileOpExecutor.execute(null, action,
                     new Runnable() {
                         public void run() {
                         	try {
@@ -404,7 +474,7 @@ public class FileUtils extends CordovaPlugin {
                     long requiredSize = args.optLong(1);
                     requestFileSystem(fstype, requiredSize, callbackContext);
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("resolveLocalFileSystemURI")) {
             threadhelper( new FileOp( ){
@@ -413,7 +483,7 @@ public class FileUtils extends CordovaPlugin {
                     JSONObject obj = resolveLocalFileSystemURI(fname);
                     callbackContext.success(obj);
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("getFileMetadata")) {
             threadhelper( new FileOp( ){
@@ -422,7 +492,7 @@ public class FileUtils extends CordovaPlugin {
                     JSONObject obj = getFileMetadata(fname);
                     callbackContext.success(obj);
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("getParent")) {
             threadhelper( new FileOp( ){
@@ -431,7 +501,7 @@ public class FileUtils extends CordovaPlugin {
                     JSONObject obj = getParent(fname);
                     callbackContext.success(obj);
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("getDirectory")) {
             threadhelper( new FileOp( ){
@@ -452,7 +522,7 @@ public class FileUtils extends CordovaPlugin {
                         callbackContext.success(obj);
                     }
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("getFile")) {
             threadhelper( new FileOp( ){
@@ -473,7 +543,7 @@ public class FileUtils extends CordovaPlugin {
                         callbackContext.success(obj);
                     }
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("remove")) {
             threadhelper( new FileOp( ){
@@ -486,7 +556,7 @@ public class FileUtils extends CordovaPlugin {
                         callbackContext.error(FileUtils.NO_MODIFICATION_ALLOWED_ERR);
                     }
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("removeRecursively")) {
             threadhelper( new FileOp( ){
@@ -499,7 +569,7 @@ public class FileUtils extends CordovaPlugin {
                         callbackContext.error(FileUtils.NO_MODIFICATION_ALLOWED_ERR);
                     }
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("moveTo")) {
             threadhelper( new FileOp( ){
@@ -510,7 +580,7 @@ public class FileUtils extends CordovaPlugin {
                     JSONObject entry = transferTo(fname, newParent, newName, true);
                     callbackContext.success(entry);
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("copyTo")) {
             threadhelper( new FileOp( ){
@@ -521,7 +591,7 @@ public class FileUtils extends CordovaPlugin {
                     JSONObject entry = transferTo(fname, newParent, newName, false);
                     callbackContext.success(entry);
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("readEntries")) {
             threadhelper( new FileOp( ){
@@ -530,7 +600,16 @@ public class FileUtils extends CordovaPlugin {
                     JSONArray entries = readEntries(fname);
                     callbackContext.success(entries);
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
+        }
+        else if (action.equals("readEntriesWithMetadata")) {
+            threadhelper( new FileOp( ){
+                public void run(JSONArray args) throws FileNotFoundException, JSONException, MalformedURLException {
+                    String fname=args.getString(0);
+                    int pageSize=args.optInt(1, DEFAULT_ENTRIES_PAGE_SIZE);
+                    readEntriesWithMetadata(fname, pageSize > 0 ? pageSize : DEFAULT_ENTRIES_PAGE_SIZE, callbackContext);
+                }
+            }, action, rawArgs, callbackContext);
         }
         else if (action.equals("_getLocalFilesystemPath")) {
             // Internal method for testing: Get the on-disk location of a local filesystem url.
@@ -541,7 +620,7 @@ public class FileUtils extends CordovaPlugin {
                     String fname = filesystemPathForURL(localURLstr);
                     callbackContext.success(fname);
                 }
-            }, rawArgs, callbackContext);
+            }, action, rawArgs, callbackContext);
         }
         else {
             return false;
@@ -594,10 +673,26 @@ public class FileUtils extends CordovaPlugin {
 
 
     public LocalFilesystemURL resolveNativeUri(Uri nativeUri) {
-        LocalFilesystemURL localURL = null;
+        LocalURLCache.Entry entry = resolveNativeEntry(nativeUri);
+        return entry != null ? entry.url : null;
+    }
+
+    /* Resolve a native URI and find its filesystem, through the cache. A file: URI resolves
+     * to a directory URL or not depending on what's on disk, so a cached resolution to a
+     * local file is only used while the file is still what it was.
+     */
+    private LocalURLCache.Entry resolveNativeEntry(Uri nativeUri) {
+        String key = nativeUri.toString();
+        LocalURLCache.Entry entry = urlCache.getNative(key);
+        if (entry != null && (!(entry.fs instanceof LocalFilesystem)
+                || new File(nativeUri.getPath()).isDirectory() == entry.url.isDirectory)) {
+            return entry;
+        }
 
         // Try all installed filesystems. Return the best matching URL
         // (determined by the shortest resulting URL)
+        LocalFilesystemURL localURL = null;
+        Filesystem localFs = null;
         for (Filesystem fs : filesystems) {
             LocalFilesystemURL url = fs.toLocalUri(nativeUri);
             if (url != null) {
@@ -605,10 +700,16 @@ public class FileUtils extends CordovaPlugin {
                 // match for the local path than the previous best.
                 if (localURL == null || (url.uri.toString().length() < localURL.toString().length())) {
                     localURL = url;
+                    localFs = fs;
                 }
             }
         }
-        return localURL;
+        if (localURL == null) {
+            return null;
+        }
+        entry = new LocalURLCache.Entry(localURL, localFs);
+        urlCache.putNative(key, entry);
+        return entry;
     }
 
     /*
@@ -619,12 +720,11 @@ public class FileUtils extends CordovaPlugin {
 
     public String filesystemPathForURL(String localURLstr) throws MalformedURLException {
         try {
-            LocalFilesystemURL inputURL = LocalFilesystemURL.parse(localURLstr);
-            Filesystem fs = this.filesystemForURL(inputURL);
-            if (fs == null) {
+            LocalURLCache.Entry resolved = resolveLocalURL(localURLstr);
+            if (resolved == null) {
                 throw new MalformedURLException("No installed handlers for this URL");
             }
-            return fs.filesystemPathForURL(inputURL);
+            return resolved.getPath();
         } catch (IllegalArgumentException e) {
             MalformedURLException mue = new MalformedURLException("Unrecognized filesystem URL");
             mue.initCause(e);
@@ -655,9 +755,12 @@ public class FileUtils extends CordovaPlugin {
 
 	/* helper to execute functions async and handle the result codes
      *
+     * Operations run on the plugin's own executor, in order with other operations on the
+     * same file (the first argument, and the destination of a move or copy) and in parallel
+     * with the rest.
      */
-    private void threadhelper(final FileOp f, final String rawArgs, final CallbackContext callbackContext){
-        cordova.getThreadPool().execute(new Runnable() {
+    private void threadhelper(final FileOp f, String action, final String rawArgs, final CallbackContext callbackContext){
+        fileOpExecutor.execute(fileKeys(action, rawArgs), action, new Runnable() {
             public void run() {
                 try {
                     JSONArray args = new JSONArray(rawArgs);
@@ -694,6 +797,58 @@ public class FileUtils extends CordovaPlugin {
         });
     }
 
+    /* The files an operation acts on, as paths on disk where they have one, so that
+     * different URLs for the same file share a key.
+     */
+    private String[] fileKeys(String action, String rawArgs) {
+        if (action.equals("moveTo") || action.equals("copyTo")) {
+            try {
+                JSONArray args = new JSONArray(rawArgs);
+                String destination = new File(fileKey(args.getString(1)), args.getString(2)).getPath();
+                return new String[] { fileKey(args.getString(0)), destination };
+            } catch (JSONException e) {
+                return null;
+            }
+        }
+        String first = firstStringArg(rawArgs);
+        return first != null ? new String[] { fileKey(first) } : null;
+    }
+
+    private String fileKey(String url) {
+        String path = null;
+        try {
+            Uri uri = Uri.parse(url);
+            if ("file".equals(uri.getScheme())) {
+                path = uri.getPath();
+            } else {
+                LocalURLCache.Entry resolved = resolveLocalURL(url);
+                // Other filesystems may have to look at the content to find a path
+                if (resolved != null && resolved.fs instanceof LocalFilesystem) {
+                    path = resolved.getPath();
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Not a filesystem URL, keyed as it is
+        }
+        return path != null ? new File(path).getPath() : url;
+    }
+
+    /* The first argument if it's a string. Only that value is parsed, so a large write
+     * payload further along isn't parsed twice.
+     */
+    private static String firstStringArg(String rawArgs) {
+        try {
+            JSONTokener tokener = new JSONTokener(rawArgs);
+            if (tokener.nextClean() != '[') {
+                return null;
+            }
+            Object first = tokener.nextValue();
+            return first instanceof String ? (String) first : null;
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
     /**
      * Allows the user to look up the Entry for a file or directory referred to by a local URI.
      *
@@ -711,18 +866,19 @@ public class FileUtils extends CordovaPlugin {
         Uri uri = Uri.parse(uriString);
         boolean isNativeUri = false;
 
-        LocalFilesystemURL inputURL = LocalFilesystemURL.parse(uri);
-        if (inputURL == null) {
+        LocalURLCache.Entry resolved = resolveLocalURL(uriString);
+        if (resolved == null) {
             /* Check for file://, content:// urls */
-            inputURL = resolveNativeUri(uri);
+            resolved = resolveNativeEntry(uri);
             isNativeUri = true;
         }
 
         try {
-            Filesystem fs = this.filesystemForURL(inputURL);
-            if (fs == null) {
+            if (resolved == null) {
                 throw new MalformedURLException("No installed handlers for this URL");
             }
+            LocalFilesystemURL inputURL = resolved.url;
+            Filesystem fs = resolved.fs;
             if (fs.exists(inputURL)) {
                 if (!isNativeUri) {
                     // If not already resolved as native URI, resolve to a native URI and back to
@@ -750,11 +906,12 @@ public class FileUtils extends CordovaPlugin {
      */
     private JSONArray readEntries(String baseURLstr) throws FileNotFoundException, JSONException, MalformedURLException {
         try {
-        	LocalFilesystemURL inputURL = LocalFilesystemURL.parse(baseURLstr);
-        	Filesystem fs = this.filesystemForURL(inputURL);
-        	if (fs == null) {
+        	LocalURLCache.Entry resolved = resolveLocalURL(baseURLstr);
+        	if (resolved == null) {
         		throw new MalformedURLException("No installed handlers for this URL");
         	}
+        	LocalFilesystemURL inputURL = resolved.url;
+        	Filesystem fs = resolved.fs;
         	return fs.readEntriesAtLocalURL(inputURL);
 
         } catch (IllegalArgumentException e) {
@@ -764,6 +921,40 @@ public class FileUtils extends CordovaPlugin {
         }
     }
 
+    /**
+     * Read the list of files from this directory along with their size, type and modification
+     * date. The entries are sent as {entries, done} results of up to pageSize entries each.
+     *
+     * @throws FileNotFoundException if the directory is not found.
+     * @throws JSONException
+     * @throws MalformedURLException
+     */
+    private void readEntriesWithMetadata(String baseURLstr, int pageSize, final CallbackContext callbackContext) throws FileNotFoundException, JSONException, MalformedURLException {
+        try {
+        	LocalURLCache.Entry resolved = resolveLocalURL(baseURLstr);
+        	if (resolved == null) {
+        		throw new MalformedURLException("No installed handlers for this URL");
+        	}
+        	LocalFilesystemURL inputURL = resolved.url;
+        	Filesystem fs = resolved.fs;
+        	fs.readEntriesWithMetadataAtLocalURL(inputURL, pageSize, new Filesystem.EntriesPageCallback() {
+        	    public void handlePage(JSONArray entries, boolean last) throws JSONException {
+        	        JSONObject page = new JSONObject();
+        	        page.put("entries", entries);
+        	        page.put("done", last);
+        	        PluginResult result = new PluginResult(PluginResult.Status.OK, page);
+        	        result.setKeepCallback(!last);
+        	        callbackContext.sendPluginResult(result);
+        	    }
+        	});
+
+        } catch (IllegalArgumentException e) {
+            MalformedURLException mue = new MalformedURLException("Unrecognized filesystem URL");
+            mue.initCause(e);
+        	throw mue;
+        }
+    }
+
     /**
      * A setup method that handles the move/copy of files/directories
      *
@@ -783,18 +974,18 @@ public class FileUtils extends CordovaPlugin {
         	throw new FileNotFoundException();
         }
 
-        LocalFilesystemURL srcURL = LocalFilesystemURL.parse(srcURLstr);
-        LocalFilesystemURL destURL = LocalFilesystemURL.parse(destURLstr);
-
-        Filesystem srcFs = this.filesystemForURL(srcURL);
-        Filesystem destFs = this.filesystemForURL(destURL);
+        LocalURLCache.Entry src = resolveLocalURL(srcURLstr);
+        LocalURLCache.Entry dest = resolveLocalURL(destURLstr);
+        if (src == null || dest == null) {
+            throw new MalformedURLException("No installed handlers for this URL");
+        }
 
         // Check for invalid file name
         if (newName != null && newName.contains(":")) {
             throw new EncodingException("Bad file name");
         }
 
-        return destFs.copyFileToURL(destURL, newName, srcFs, srcURL, move);
+        return dest.fs.copyFileToURL(dest.url, newName, src.fs, src.url, move);
     }
 
     /**
@@ -810,16 +1001,17 @@ public class FileUtils extends CordovaPlugin {
      */
     private boolean removeRecursively(String baseURLstr) throws FileExistsException, NoModificationAllowedException, MalformedURLException {
         try {
-        	LocalFilesystemURL inputURL = LocalFilesystemURL.parse(baseURLstr);
+        	LocalURLCache.Entry resolved = resolveLocalURL(baseURLstr);
+        	if (resolved == null) {
+        		throw new MalformedURLException("No installed handlers for this URL");
+        	}
+        	LocalFilesystemURL inputURL = resolved.url;
         	// You can't delete the root directory.
         	if ("".equals(inputURL.path) || "/".equals(inputURL.path)) {
         		throw new NoModificationAllowedException("You can't delete the root directory");
         	}
 
-        	Filesystem fs = this.filesystemForURL(inputURL);
-        	if (fs == null) {
-        		throw new MalformedURLException("No installed handlers for this URL");
-        	}
+        	Filesystem fs = resolved.fs;
         	return fs.recursiveRemoveFileAtLocalURL(inputURL);
 
         } catch (IllegalArgumentException e) {
@@ -841,17 +1033,18 @@ public class FileUtils extends CordovaPlugin {
      */
     private boolean remove(String baseURLstr) throws NoModificationAllowedException, InvalidModificationException, MalformedURLException {
         try {
-        	LocalFilesystemURL inputURL = LocalFilesystemURL.parse(baseURLstr);
+        	LocalURLCache.Entry resolved = resolveLocalURL(baseURLstr);
+        	if (resolved == null) {
+        		throw new MalformedURLException("No installed handlers for this URL");
+        	}
+        	LocalFilesystemURL inputURL = resolved.url;
         	// You can't delete the root directory.
         	if ("".equals(inputURL.path) || "/".equals(inputURL.path)) {
 
         		throw new NoModificationAllowedException("You can't delete the root directory");
         	}
 
-        	Filesystem fs = this.filesystemForURL(inputURL);
-        	if (fs == null) {
-        		throw new MalformedURLException("No installed handlers for this URL");
-        	}
+        	Filesystem fs = resolved.fs;
         	return fs.removeFileAtLocalURL(inputURL);
 
         } catch (IllegalArgumentException e) {
@@ -877,11 +1070,12 @@ public class FileUtils extends CordovaPlugin {
      */
     private JSONObject getFile(String baseURLstr, String path, JSONObject options, boolean directory) throws FileExistsException, IOException, TypeMismatchException, EncodingException, JSONException {
         try {
-        	LocalFilesystemURL inputURL = LocalFilesystemURL.parse(baseURLstr);
-        	Filesystem fs = this.filesystemForURL(inputURL);
-        	if (fs == null) {
+        	LocalURLCache.Entry resolved = resolveLocalURL(baseURLstr);
+        	if (resolved == null) {
         		throw new MalformedURLException("No installed handlers for this URL");
         	}
+        	LocalFilesystemURL inputURL = resolved.url;
+        	Filesystem fs = resolved.fs;
         	return fs.getFileForLocalURL(inputURL, path, options, directory);
 
         } catch (IllegalArgumentException e) {
@@ -898,11 +1092,12 @@ public class FileUtils extends CordovaPlugin {
      */
     private JSONObject getParent(String baseURLstr) throws JSONException, IOException {
         try {
-        	LocalFilesystemURL inputURL = LocalFilesystemURL.parse(baseURLstr);
-        	Filesystem fs = this.filesystemForURL(inputURL);
-        	if (fs == null) {
+        	LocalURLCache.Entry resolved = resolveLocalURL(baseURLstr);
+        	if (resolved == null) {
         		throw new MalformedURLException("No installed handlers for this URL");
         	}
+        	LocalFilesystemURL inputURL = resolved.url;
+        	Filesystem fs = resolved.fs;
         	return fs.getParentForLocalURL(inputURL);
 
         } catch (IllegalArgumentException e) {
@@ -919,11 +1114,12 @@ public class FileUtils extends CordovaPlugin {
      */
     private JSONObject getFileMetadata(String baseURLstr) throws FileNotFoundException, JSONException, MalformedURLException {
         try {
-        	LocalFilesystemURL inputURL = LocalFilesystemURL.parse(baseURLstr);
-        	Filesystem fs = this.filesystemForURL(inputURL);
-        	if (fs == null) {
+        	LocalURLCache.Entry resolved = resolveLocalURL(baseURLstr);
+        	if (resolved == null) {
         		throw new MalformedURLException("No installed handlers for this URL");
         	}
+        	LocalFilesystemURL inputURL = resolved.url;
+        	Filesystem fs = resolved.fs;
         	return fs.getFileMetadataForLocalURL(inputURL);
 
         } catch (IllegalArgumentException e) {
@@ -1058,43 +1254,31 @@ public class FileUtils extends CordovaPlugin {
      */
     public void readFileAs(final String srcURLstr, final int start, final int end, final CallbackContext callbackContext, final String encoding, final int resultType) throws MalformedURLException {
         try {
-        	LocalFilesystemURL inputURL = LocalFilesystemURL.parse(srcURLstr);
-        	Filesystem fs = this.filesystemForURL(inputURL);
-        	if (fs == null) {
+        	LocalURLCache.Entry resolved = resolveLocalURL(srcURLstr);
+        	if (resolved == null) {
         		throw new MalformedURLException("No installed handlers for this URL");
         	}
+        	LocalFilesystemURL inputURL = resolved.url;
+        	Filesystem fs = resolved.fs;
 
             fs.readFileAtURL(inputURL, start, end, new Filesystem.ReadFileCallback() {
                 public void handleData(InputStream inputStream, String contentType) {
             		try {
-                        ByteArrayOutputStream os = new ByteArrayOutputStream();
-                        final int BUFFER_SIZE = 8192;
-                        byte[] buffer = new byte[BUFFER_SIZE];
-
-                        for (;;) {
-                            int bytesRead = inputStream.read(buffer, 0, BUFFER_SIZE);
-
-                            if (bytesRead <= 0) {
-                                break;
-                            }
-                            os.write(buffer, 0, bytesRead);
-                        }
+                        byte[] data = readFully(inputStream);
 
             			PluginResult result;
             			switch (resultType) {
             			case PluginResult.MESSAGE_TYPE_STRING:
-                            result = new PluginResult(PluginResult.Status.OK, os.toString(encoding));
+                            result = new PluginResult(PluginResult.Status.OK, new String(data, encoding));
             				break;
             			case PluginResult.MESSAGE_TYPE_ARRAYBUFFER:
-                            result = new PluginResult(PluginResult.Status.OK, os.toByteArray());
+                            result = new PluginResult(PluginResult.Status.OK, data);
             				break;
             			case PluginResult.MESSAGE_TYPE_BINARYSTRING:
-                            result = new PluginResult(PluginResult.Status.OK, os.toByteArray(), true);
+                            result = new PluginResult(PluginResult.Status.OK, data, true);
             				break;
             			default: // Base64.
-                        byte[] base64 = Base64.encode(os.toByteArray(), Base64.NO_WRAP);
-            			String s = "data:" + contentType + ";base64," + new String(base64, "US-ASCII");
-            			result = new PluginResult(PluginResult.Status.OK, s);
+            			result = new PluginResult(PluginResult.Status.OK, toDataUrl(contentType, data));
             			}
 
             			callbackContext.sendPluginResult(result);
@@ -1118,6 +1302,58 @@ public class FileUtils extends CordovaPlugin {
         }
     }
 
+    /**
+     * Read a stream to the end. Ranged reads hand over a LimitedInputStream that knows its
+     * size, so their bytes are read into a single array of exactly that size.
+     */
+    private static byte[] readFully(InputStream inputStream) throws IOException {
+        if (!(inputStream instanceof Filesystem.LimitedInputStream)
+                || ((Filesystem.LimitedInputStream) inputStream).remaining() > Integer.MAX_VALUE) {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            final int BUFFER_SIZE = 8192;
+            byte[] buffer = new byte[BUFFER_SIZE];
+
+            for (;;) {
+                int bytesRead = inputStream.read(buffer, 0, BUFFER_SIZE);
+
+                if (bytesRead <= 0) {
+                    break;
+                }
+                os.write(buffer, 0, bytesRead);
+            }
+            return os.toByteArray();
+        }
+
+        byte[] data = new byte[(int) ((Filesystem.LimitedInputStream) inputStream).remaining()];
+        int filled = 0;
+        while (filled < data.length) {
+            int bytesRead = inputStream.read(data, filled, data.length - filled);
+            if (bytesRead <= 0) {
+                break;
+            }
+            filled += bytesRead;
+        }
+        // Only copies if the file shrank since its size was taken
+        return filled == data.length ? data : Arrays.copyOf(data, filled);
+    }
+
+    /**
+     * Encode bytes as a data URL, a chunk at a time into a builder of the final size, rather
+     * than encoding them all to a temporary array first.
+     */
+    private static String toDataUrl(String contentType, byte[] data) {
+        String prefix = "data:" + contentType + ";base64,";
+        StringBuilder sb = new StringBuilder(prefix.length() + (data.length + 2) / 3 * 4);
+        sb.append(prefix);
+        for (int offset = 0; offset < data.length; offset += BASE64_CHUNK_SIZE) {
+            byte[] encoded = Base64.encode(data, offset, Math.min(BASE64_CHUNK_SIZE, data.length - offset), Base64.NO_WRAP);
+            for (byte b : encoded) {
+                sb.append((char) b);
+            }
+        }
+        return sb.toString();
+    }
+
 
     /**
      * Write contents of file.
@@ -1128,20 +1364,173 @@ public class FileUtils extends CordovaPlugin {
      */
     /**/
     public long write(String srcURLstr, String data, int offset, boolean isBinary) throws FileNotFoundException, IOException, NoModificationAllowedException {
+        return write(srcURLstr, data, offset, isBinary, 0);
+    }
+
+    /**
+     * Write contents of file.
+     *
+     * @param data				The contents of the file.
+     * @param offset			The position to begin writing the file.
+     * @param isBinary          True if the file contents are base64-encoded binary data
+     * @param startedAt         When JS started the write (ms since the epoch), or 0 if unknown
+     */
+    public long write(String srcURLstr, String data, int offset, boolean isBinary, long startedAt) throws FileNotFoundException, IOException, NoModificationAllowedException {
         try {
-        	LocalFilesystemURL inputURL = LocalFilesystemURL.parse(srcURLstr);
-        	Filesystem fs = this.filesystemForURL(inputURL);
-        	if (fs == null) {
+        	LocalURLCache.Entry resolved = resolveLocalURL(srcURLstr);
+        	if (resolved == null) {
         		throw new MalformedURLException("No installed handlers for this URL");
         	}
+        	LocalFilesystemURL inputURL = resolved.url;
+        	Filesystem fs = resolved.fs;
+
+            long startTime = System.nanoTime();
+            long bytesWritten;
+            WriteSession session = getWriteSession(srcURLstr);
+            if (session != null) {
+                bytesWritten = session.write(data, offset, isBinary);
+            } else {
+                bytesWritten = fs.writeToFileAtURL(inputURL, data, offset, isBinary);
+            }
+            if (isBinary) {
+                base64WriteStats.record(bytesWritten, WriteStats.elapsedNanos(startedAt, startTime));
+            }
+            return bytesWritten;
+        } catch (IllegalArgumentException e) {
+            MalformedURLException mue = new MalformedURLException("Unrecognized filesystem URL");
+            mue.initCause(e);
+        	throw mue;
+        }
 
-            long x = fs.writeToFileAtURL(inputURL, data, offset, isBinary); LOG.d("TEST",srcURLstr + ": "+x); return x;
+    }
+
+    /**
+     * Write already-decoded contents of file.
+     *
+     * @param rawData			The bytes to write.
+     * @param offset			The position to begin writing the file.
+     * @param startedAt         When JS started the write (ms since the epoch), or 0 if unknown
+     */
+    public long write(String srcURLstr, byte[] rawData, int offset, long startedAt) throws FileNotFoundException, IOException, NoModificationAllowedException {
+        try {
+        	LocalURLCache.Entry resolved = resolveLocalURL(srcURLstr);
+        	if (resolved == null) {
+        		throw new MalformedURLException("No installed handlers for this URL");
+        	}
+        	LocalFilesystemURL inputURL = resolved.url;
+        	Filesystem fs = resolved.fs;
+
+            long startTime = System.nanoTime();
+            long bytesWritten;
+            WriteSession session = getWriteSession(srcURLstr);
+            if (session != null) {
+                bytesWritten = session.write(rawData, offset);
+            } else {
+                bytesWritten = fs.writeToFileAtURL(inputURL, rawData, offset);
+            }
+            binaryWriteStats.record(bytesWritten, WriteStats.elapsedNanos(startedAt, startTime));
+            return bytesWritten;
         } catch (IllegalArgumentException e) {
             MalformedURLException mue = new MalformedURLException("Unrecognized filesystem URL");
             mue.initCause(e);
         	throw mue;
         }
+    }
 
+    /**
+     * Entry point for FileBinaryBridge. Runs the write on the thread pool and answers the
+     * given cordova callback. Unlike the "write" action, the data can't be kept around
+     * for a permission prompt, so a write that needs a permission fails with SECURITY_ERR.
+     */
+    void writeBinary(String callbackId, final String fileURL, final byte[] rawData, final int offset, final long startedAt) {
+        final CallbackContext callbackContext = new CallbackContext(callbackId, webView);
+        String rawArgs = new JSONArray().put(fileURL).put(offset).toString();
+        threadhelper( new FileOp( ){
+            public void run(JSONArray args) throws JSONException, FileNotFoundException, IOException, NoModificationAllowedException {
+                if(getWriteSession(fileURL) == null && needPermission(resolveLocalFileSystemURI(fileURL).getString("nativeURL"), WRITE)) {
+                    callbackContext.error(FileUtils.SECURITY_ERR);
+                }
+                else {
+                    long fileSize = write(fileURL, rawData, offset, startedAt);
+                    callbackContext.sendPluginResult(new PluginResult(PluginResult.Status.OK, fileSize));
+                }
+            }
+        }, "write", rawArgs, callbackContext);
+    }
+
+    /**
+     * Open a write session on a file. Until the session is closed, writes to the same URL go
+     * through a single open channel instead of reopening the file for every chunk.
+     *
+     * @return                  The current size of the file
+     */
+    public long openWriter(String srcURLstr) throws FileNotFoundException, IOException, NoModificationAllowedException {
+        try {
+        	LocalURLCache.Entry resolved = resolveLocalURL(srcURLstr);
+        	if (resolved == null) {
+        		throw new MalformedURLException("No installed handlers for this URL");
+        	}
+        	LocalFilesystemURL inputURL = resolved.url;
+        	Filesystem fs = resolved.fs;
+
+            synchronized (writeSessions) {
+                WriteSession session = writeSessions.get(srcURLstr);
+                if (session == null) {
+                    session = fs.openWriteSessionAtURL(inputURL);
+                    writeSessions.put(srcURLstr, session);
+                }
+                return session.size();
+            }
+        } catch (IllegalArgumentException e) {
+            MalformedURLException mue = new MalformedURLException("Unrecognized filesystem URL");
+            mue.initCause(e);
+        	throw mue;
+        }
+    }
+
+    /**
+     * Close the write session on a file, if one is open.
+     *
+     * @return                  The size of the file once closed
+     */
+    public long closeWriter(String srcURLstr) throws IOException {
+        WriteSession session;
+        synchronized (writeSessions) {
+            session = writeSessions.remove(srcURLstr);
+        }
+        if (session == null) {
+            throw new FileNotFoundException("No writer open for " + srcURLstr);
+        }
+        long fileSize;
+        try {
+            fileSize = session.size();
+        } finally {
+            session.close();
+        }
+        LocalURLCache.Entry resolved = resolveLocalURL(srcURLstr);
+        if (resolved != null) {
+            resolved.fs.onWriteSessionClosed(session);
+        }
+        return fileSize;
+    }
+
+    private WriteSession getWriteSession(String srcURLstr) {
+        synchronized (writeSessions) {
+            return writeSessions.get(srcURLstr);
+        }
+    }
+
+    private void closeAllWriters() {
+        synchronized (writeSessions) {
+            for (WriteSession session : writeSessions.values()) {
+                try {
+                    session.close();
+                } catch (IOException e) {
+                    LOG.d(LOG_TAG, e.getLocalizedMessage());
+                }
+            }
+            writeSessions.clear();
+        }
     }
 
     /**
@@ -1149,11 +1538,12 @@ public class FileUtils extends CordovaPlugin {
      */
     private long truncateFile(String srcURLstr, long size) throws FileNotFoundException, IOException, NoModificationAllowedException {
         try {
-        	LocalFilesystemURL inputURL = LocalFilesystemURL.parse(srcURLstr);
-        	Filesystem fs = this.filesystemForURL(inputURL);
-        	if (fs == null) {
+        	LocalURLCache.Entry resolved = resolveLocalURL(srcURLstr);
+        	if (resolved == null) {
         		throw new MalformedURLException("No installed handlers for this URL");
         	}
+        	LocalFilesystemURL inputURL = resolved.url;
+        	Filesystem fs = resolved.fs;
 
             return fs.truncateFileAtURL(inputURL, size);
         } catch (IllegalArgumentException e) {
@@ -1164,6 +1554,17 @@ public class FileUtils extends CordovaPlugin {
     }
 
 
+    @Override
+    public void onReset() {
+        closeAllWriters();
+    }
+
+    @Override
+    public void onDestroy() {
+        closeAllWriters();
+        fileOpExecutor.shutdown();
+    }
+
     /*
      * Handle the response
      */
@@ -1192,7 +1593,7 @@ public class FileUtils extends CordovaPlugin {
                             JSONObject obj = getFile(dirname, path, args.optJSONObject(2), false);
                             req.getCallbackContext().success(obj);
                         }
-                    }, req.getRawArgs(), req.getCallbackContext());
+                    }, "getFile", req.getRawArgs(), req.getCallbackContext());
                     break;
                 case ACTION_GET_DIRECTORY:
                     threadhelper( new FileOp( ){
@@ -1203,7 +1604,7 @@ public class FileUtils extends CordovaPlugin {
                             JSONObject obj = getFile(dirname, path, args.optJSONObject(2), true);
                             req.getCallbackContext().success(obj);
                         }
-                    }, req.getRawArgs(), req.getCallbackContext());
+                    }, "getDirectory", req.getRawArgs(), req.getCallbackContext());
                     break;
                 case ACTION_WRITE:
                     threadhelper( new FileOp( ){
@@ -1212,10 +1613,20 @@ public class FileUtils extends CordovaPlugin {
                             String data=args.getString(1);
                             int offset=args.getInt(2);
                             Boolean isBinary=args.getBoolean(3);
-                            long fileSize = write(fname, data, offset, isBinary);
+                            long startedAt=args.optLong(4);
+                            long fileSize = write(fname, data, offset, isBinary, startedAt);
+                            req.getCallbackContext().sendPluginResult(new PluginResult(PluginResult.Status.OK, fileSize));
+                        }
+                    }, "write", req.getRawArgs(), req.getCallbackContext());
+                    break;
+                case ACTION_OPEN_WRITER:
+                    threadhelper( new FileOp( ){
+                        public void run(JSONArray args) throws JSONException, FileNotFoundException, IOException, NoModificationAllowedException {
+                            String fname=args.getString(0);
+                            long fileSize = openWriter(fname);
                             req.getCallbackContext().sendPluginResult(new PluginResult(PluginResult.Status.OK, fileSize));
                         }
-                    }, req.getRawArgs(), req.getCallbackContext());
+                    }, "openWriter", req.getRawArgs(), req.getCallbackContext());
                     break;
             }
         } else {
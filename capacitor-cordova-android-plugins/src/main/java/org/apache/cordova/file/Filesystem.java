@@ -21,6 +21,7 @@ package org.apache.cordova.file;
 import android.net.Uri;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FilterInputStream;
 import java.io.IOException;
@@ -51,6 +52,13 @@ public abstract class Filesystem {
 		public void handleData(InputStream inputStream, String contentType) throws IOException;
 	}
 
+    /* Receives the entries of readEntriesWithMetadataAtLocalURL a page at a time. The last
+     * page may be empty.
+     */
+    public interface EntriesPageCallback {
+        public void handlePage(JSONArray entries, boolean last) throws JSONException;
+    }
+
     public static JSONObject makeEntryForURL(LocalFilesystemURL inputURL, Uri nativeURL) {
         try {
             String path = inputURL.path;
@@ -86,6 +94,17 @@ public abstract class Filesystem {
         return nativeUri == null ? null : makeEntryForURL(inputURL, nativeUri);
     }
 
+    /* An entry with the size, type and lastModifiedDate that getFileMetadata would report.
+     */
+    protected static JSONObject makeEntryWithMetadata(LocalFilesystemURL inputURL, Uri nativeURL,
+                                                      long size, String type, long lastModified) throws JSONException {
+        JSONObject entry = makeEntryForURL(inputURL, nativeURL);
+        entry.put("size", size);
+        entry.put("type", type);
+        entry.put("lastModifiedDate", lastModified);
+        return entry;
+    }
+
     public JSONObject makeEntryForNativeUri(Uri nativeUri) {
         LocalFilesystemURL inputUrl = toLocalUri(nativeUri);
         return inputUrl == null ? null : makeEntryForURL(inputUrl, nativeUri);
@@ -119,6 +138,38 @@ public abstract class Filesystem {
         return entries;
     }
 
+    /* List a directory along with the metadata of every child, handing the entries over a
+     * page at a time. This generic version asks for the metadata of each child in turn;
+     * filesystems that can read it while listing override it.
+     */
+    public void readEntriesWithMetadataAtLocalURL(LocalFilesystemURL inputURL, int pageSize,
+                                                  EntriesPageCallback callback) throws FileNotFoundException, JSONException {
+        LocalFilesystemURL[] children = listChildren(inputURL);
+        JSONArray page = new JSONArray();
+        if (children != null) {
+            for (LocalFilesystemURL url : children) {
+                Uri nativeUri = toNativeUri(url);
+                JSONObject metadata;
+                try {
+                    metadata = getFileMetadataForLocalURL(url);
+                } catch (FileNotFoundException e) {
+                    // Removed since it was listed
+                    continue;
+                }
+                if (nativeUri == null || metadata == null) {
+                    continue;
+                }
+                page.put(makeEntryWithMetadata(url, nativeUri, metadata.optLong("size"),
+                        metadata.optString("type", null), metadata.optLong("lastModifiedDate")));
+                if (page.length() >= pageSize) {
+                    callback.handlePage(page, false);
+                    page = new JSONArray();
+                }
+            }
+        }
+        callback.handlePage(page, true);
+    }
+
 	abstract JSONObject getFileMetadataForLocalURL(LocalFilesystemURL inputURL) throws FileNotFoundException;
 
     public Uri getRootUri() {
@@ -269,7 +320,7 @@ public abstract class Filesystem {
     public void readFileAtURL(LocalFilesystemURL inputURL, long start, long end,
                               ReadFileCallback readFileCallback) throws IOException {
         CordovaResourceApi.OpenForReadResult ofrr = resourceApi.openForRead(toNativeUri(inputURL));
-        if (end < 0) {
+        if (end < 0 || (ofrr.length >= 0 && end > ofrr.length)) {
             end = ofrr.length;
         }
         long numBytesToRead = end - start;
@@ -278,7 +329,8 @@ public abstract class Filesystem {
                 ofrr.inputStream.skip(start);
             }
             InputStream inputStream = ofrr.inputStream;
-            if (end < ofrr.length) {
+            if (end >= 0) {
+                // Limit the stream even when it would end by itself, so that readers know its size
                 inputStream = new LimitedInputStream(inputStream, numBytesToRead);
             }
             readFileCallback.handleData(inputStream, ofrr.mimeType);
@@ -287,12 +339,52 @@ public abstract class Filesystem {
         }
     }
 
+    /* Read a range of a seekable file by positioning its channel, rather than skipping
+     * through it like readFileAtURL does. The content starts at base within the file and is
+     * length bytes long, or runs to the end of the file if length is negative.
+     */
+    protected void readFileRange(FileInputStream inputStream, long base, long length, long start, long end,
+                                 String mimeType, ReadFileCallback readFileCallback) throws IOException {
+        try {
+            if (length < 0) {
+                length = inputStream.getChannel().size() - base;
+            }
+            if (end < 0 || end > length) {
+                end = length;
+            }
+            inputStream.getChannel().position(base + Math.min(start, length));
+            readFileCallback.handleData(new LimitedInputStream(inputStream, end - start), mimeType);
+        } finally {
+            inputStream.close();
+        }
+    }
+
 	abstract long writeToFileAtURL(LocalFilesystemURL inputURL, String data, int offset,
 			boolean isBinary) throws NoModificationAllowedException, IOException;
 
+    /* Write already-decoded bytes. Used by the binary transport, which hands over raw
+     * bytes instead of a base64 string.
+     */
+    public long writeToFileAtURL(LocalFilesystemURL inputURL, byte[] rawData, int offset) throws NoModificationAllowedException, IOException {
+        throw new NoModificationAllowedException("Couldn't write to file at " + inputURL);
+    }
+
 	abstract long truncateFileAtURL(LocalFilesystemURL inputURL, long size)
 			throws IOException, NoModificationAllowedException;
 
+    /* Open a session that keeps the file at the given URL open for writing across
+     * several write calls. Filesystems that can't hold a writable handle should
+     * leave this unimplemented.
+     */
+    public WriteSession openWriteSessionAtURL(LocalFilesystemURL inputURL) throws IOException, NoModificationAllowedException {
+        throw new NoModificationAllowedException("Write sessions are not supported for " + inputURL);
+    }
+
+    /* Called once a write session opened by this filesystem has been closed.
+     */
+    public void onWriteSessionClosed(WriteSession session) {
+    }
+
 	// This method should return null if filesystem urls cannot be mapped to paths
 	abstract String filesystemPathForURL(LocalFilesystemURL url);
 
@@ -306,13 +398,20 @@ public abstract class Filesystem {
             super(in);
             this.numBytesToRead = numBytesToRead;
         }
+        /* The number of bytes left to read, or fewer if the underlying stream ends early */
+        public long remaining() {
+            return Math.max(0, numBytesToRead);
+        }
         @Override
         public int read() throws IOException {
             if (numBytesToRead <= 0) {
                 return -1;
             }
-            numBytesToRead--;
-            return in.read();
+            int b = in.read();
+            if (b != -1) {
+                numBytesToRead--;
+            }
+            return b;
         }
         @Override
         public int read(byte[] buffer, int byteOffset, int byteCount) throws IOException {
@@ -324,7 +423,9 @@ public abstract class Filesystem {
                 bytesToRead = (int)numBytesToRead; // Cast okay; long is less than int here.
             }
             int numBytesRead = in.read(buffer, byteOffset, bytesToRead);
-            numBytesToRead -= numBytesRead;
+            if (numBytesRead > 0) {
+                numBytesToRead -= numBytesRead;
+            }
             return numBytesRead;
         }
     }
@@ -28,7 +28,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.RandomAccessFile;
 import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Locale;
 import org.apache.cordova.CordovaResourceApi;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -203,16 +206,11 @@ public class LocalFilesystem extends Filesystem {
 
 	protected boolean removeDirRecursively(File directory) throws FileExistsException {
         if (directory.isDirectory()) {
-            for (File file : directory.listFiles()) {
-                removeDirRecursively(file);
-            }
-        }
-
-        if (!directory.delete()) {
+            DirectoryRemover.remove(directory);
+        } else if (!directory.delete()) {
             throw new FileExistsException("could not delete: " + directory.getName());
-        } else {
-            return true;
         }
+        return true;
 	}
 
     @Override
@@ -237,6 +235,60 @@ public class LocalFilesystem extends Filesystem {
         return entries;
 	}
 
+    /* Reads each child's metadata while listing instead of in a getMetadata call per entry:
+     * lastModified, isDirectory and (for files) length, plus exists only when lastModified
+     * comes back 0. Builds the child's URL from the directory's rather than resolving its path
+     * again, and looks mime types up once per extension.
+     */
+    @Override
+    public void readEntriesWithMetadataAtLocalURL(LocalFilesystemURL inputURL, int pageSize,
+                                                  EntriesPageCallback callback) throws FileNotFoundException, JSONException {
+        File fp = new File(filesystemPathForURL(inputURL));
+
+        if (!fp.exists()) {
+            // The directory we are listing doesn't exist so we should fail.
+            throw new FileNotFoundException();
+        }
+
+        String[] names = fp.list();
+        HashMap<String, String> mimeTypes = new HashMap<String, String>();
+        JSONArray page = new JSONArray();
+        if (names != null) {
+            for (String name : names) {
+                File file = new File(fp, name);
+                long lastModified = file.lastModified();
+                if (lastModified == 0 && !file.exists()) {
+                    // Removed since it was listed
+                    continue;
+                }
+                boolean isDirectory = file.isDirectory();
+                Uri.Builder b = inputURL.uri.buildUpon().appendPath(name);
+                if (isDirectory) {
+                    b.appendEncodedPath("");
+                }
+                page.put(makeEntryWithMetadata(LocalFilesystemURL.parse(b.build()), Uri.fromFile(file),
+                        isDirectory ? 0 : file.length(), mimeTypeFor(file, mimeTypes), lastModified));
+                if (page.length() >= pageSize) {
+                    callback.handlePage(page, false);
+                    page = new JSONArray();
+                }
+            }
+        }
+        callback.handlePage(page, true);
+    }
+
+    private String mimeTypeFor(File file, HashMap<String, String> mimeTypes) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        String extension = dot < 0 ? "" : name.substring(dot + 1).toLowerCase(Locale.US);
+        if (mimeTypes.containsKey(extension)) {
+            return mimeTypes.get(extension);
+        }
+        String type = resourceApi.getMimeType(Uri.fromFile(file));
+        mimeTypes.put(extension, type);
+        return type;
+    }
+
 	@Override
 	public JSONObject getFileMetadataForLocalURL(LocalFilesystemURL inputURL) throws FileNotFoundException {
         File file = new File(filesystemPathForURL(inputURL));
@@ -259,6 +311,14 @@ public class LocalFilesystem extends Filesystem {
         return metadata;
 	}
 
+    @Override
+    public void readFileAtURL(LocalFilesystemURL inputURL, long start, long end,
+                              ReadFileCallback readFileCallback) throws IOException {
+        File file = new File(filesystemPathForURL(inputURL));
+        readFileRange(new FileInputStream(file), 0, -1, start, end,
+                resourceApi.getMimeType(Uri.fromFile(file)), readFileCallback);
+    }
+
     private void copyFile(Filesystem srcFs, LocalFilesystemURL srcURL, File destFile, boolean move) throws IOException, InvalidModificationException, NoModificationAllowedException {
         if (move) {
             String realSrcPath = srcFs.filesystemPathForURL(srcURL);
@@ -376,27 +436,31 @@ public class LocalFilesystem extends Filesystem {
 	public long writeToFileAtURL(LocalFilesystemURL inputURL, String data,
 			int offset, boolean isBinary) throws IOException, NoModificationAllowedException {
 
-        boolean append = false;
-        if (offset > 0) {
-            this.truncateFileAtURL(inputURL, offset);
-            append = true;
-        }
-
         byte[] rawData;
         if (isBinary) {
             rawData = Base64.decode(data, Base64.DEFAULT);
         } else {
             rawData = data.getBytes(Charset.defaultCharset());
         }
-        ByteArrayInputStream in = new ByteArrayInputStream(rawData);
+        return writeToFileAtURL(inputURL, rawData, offset);
+	}
+
+	@Override
+	public long writeToFileAtURL(LocalFilesystemURL inputURL, byte[] rawData,
+			int offset) throws IOException, NoModificationAllowedException {
+
+        boolean append = false;
+        if (offset > 0) {
+            this.truncateFileAtURL(inputURL, offset);
+            append = true;
+        }
+
         try
         {
-        	byte buff[] = new byte[rawData.length];
             String absolutePath = filesystemPathForURL(inputURL);
             FileOutputStream out = new FileOutputStream(absolutePath, append);
             try {
-            	in.read(buff, 0, buff.length);
-            	out.write(buff, 0, rawData.length);
+            	out.write(rawData, 0, rawData.length);
             	out.flush();
             } finally {
             	// Always close the output
@@ -417,6 +481,25 @@ public class LocalFilesystem extends Filesystem {
         return rawData.length;
 	}
 
+    @Override
+    public WriteSession openWriteSessionAtURL(LocalFilesystemURL inputURL) throws IOException {
+        File file = new File(filesystemPathForURL(inputURL));
+
+        if (!file.exists()) {
+            throw new FileNotFoundException("File at " + inputURL.uri + " does not exist.");
+        }
+
+        return new WriteSession(file.getAbsolutePath());
+    }
+
+    @Override
+    public void onWriteSessionClosed(WriteSession session) {
+        String absolutePath = session.getAbsolutePath();
+        if (isPublicDirectory(absolutePath)) {
+            broadcastNewFile(Uri.fromFile(new File(absolutePath)));
+        }
+    }
+
     private boolean isPublicDirectory(String absolutePath) {
         // TODO: should expose a way to scan app's private files (maybe via a flag).
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
@@ -0,0 +1,103 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+ */
+package org.apache.cordova.file;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, least recently used cache of URL resolutions. Every file action parses its URL
+ * and looks up its filesystem, and a download resolves the same URL for every chunk it writes.
+ *
+ * A cdvfile: URL resolves the same way whatever is on disk, so those entries never go stale.
+ * A native file: URI resolves to a directory URL or not depending on what it points to, so
+ * callers check those entries against the disk before using them.
+ */
+class LocalURLCache {
+    private static final int DEFAULT_CAPACITY = 256;
+
+    static class Entry {
+        final LocalFilesystemURL url;
+        final Filesystem fs;
+        private volatile String path;
+
+        Entry(LocalFilesystemURL url, Filesystem fs) {
+            this.url = url;
+            this.fs = fs;
+        }
+
+        /* The path on disk. Only a LocalFilesystem maps URLs to paths without looking at
+         * the content they point to, so only its paths are kept.
+         */
+        String getPath() {
+            if (!(fs instanceof LocalFilesystem)) {
+                return fs.filesystemPathForURL(url);
+            }
+            if (path == null) {
+                path = fs.filesystemPathForURL(url);
+            }
+            return path;
+        }
+    }
+
+    private final Map<String, Entry> localURLs;
+    private final Map<String, Entry> nativeURIs;
+
+    LocalURLCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    LocalURLCache(int capacity) {
+        localURLs = lru(capacity);
+        nativeURIs = lru(capacity);
+    }
+
+    private static <V> Map<String, V> lru(final int capacity) {
+        return new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    Entry get(String localURL) {
+        synchronized (localURLs) {
+            return localURLs.get(localURL);
+        }
+    }
+
+    void put(String localURL, Entry entry) {
+        synchronized (localURLs) {
+            localURLs.put(localURL, entry);
+        }
+    }
+
+    Entry getNative(String nativeURI) {
+        synchronized (nativeURIs) {
+            return nativeURIs.get(nativeURI);
+        }
+    }
+
+    void putNative(String nativeURI, Entry entry) {
+        synchronized (nativeURIs) {
+            nativeURIs.put(nativeURI, entry);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+ */
+package org.apache.cordova.file;
+
+import android.util.Base64;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Keeps a writable channel open on a local file across successive write calls, so that
+ * chunked writes don't truncate and reopen the file for every chunk.
+ */
+public class WriteSession {
+    private final String absolutePath;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+
+    WriteSession(String absolutePath) throws FileNotFoundException {
+        this.absolutePath = absolutePath;
+        this.raf = new RandomAccessFile(absolutePath, "rw");
+        this.channel = raf.getChannel();
+    }
+
+    public String getAbsolutePath() {
+        return absolutePath;
+    }
+
+    /**
+     * Write data at the given offset. The result on disk is the same as for
+     * Filesystem.writeToFileAtURL: offsets past the end of the file append, and the file ends
+     * where the written data ends. Sequential appends therefore never truncate.
+     *
+     * @param data      The contents to write.
+     * @param offset    The position to begin writing at.
+     * @param isBinary  True if the data is base64-encoded binary data
+     * @return          The number of bytes written
+     */
+    public synchronized long write(String data, long offset, boolean isBinary) throws IOException {
+        byte[] rawData;
+        if (isBinary) {
+            rawData = Base64.decode(data, Base64.DEFAULT);
+        } else {
+            rawData = data.getBytes(Charset.defaultCharset());
+        }
+        return write(rawData, offset);
+    }
+
+    public synchronized long write(byte[] rawData, long offset) throws IOException {
+        long size = channel.size();
+        long position = Math.min(offset, size);
+        ByteBuffer buffer = ByteBuffer.wrap(rawData);
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        if (position < size) {
+            channel.truncate(position);
+        }
+        return rawData.length;
+    }
+
+    public synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    public synchronized void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            raf.close();
+        }
+    }
+}
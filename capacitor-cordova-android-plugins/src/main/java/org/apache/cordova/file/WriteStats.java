@@ -0,0 +1,75 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+ */
+package org.apache.cordova.file;
+
+import org.apache.cordova.LOG;
+
+import java.util.Locale;
+
+/**
+ * Accumulates write throughput for one transport (base64 or binary) and logs it every
+ * few megabytes, so the two paths can be compared on a device. When FileWriter.js
+ * passes the time it started a write, the elapsed time covers the JS-side encoding and
+ * the bridge transfer as well as the native write; otherwise only the native part is
+ * measured.
+ */
+class WriteStats {
+    private static final String LOG_TAG = "FileUtils";
+    private static final long REPORT_INTERVAL_BYTES = 16 * 1024 * 1024;
+
+    private final String name;
+    private long bytes;
+    private long nanos;
+    private long lastReportBytes;
+
+    WriteStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Time spent on a write, counted from startedAt (ms since the epoch, as taken by
+     * Date.now() in JS) when it is known, or from nativeStartNanos otherwise.
+     */
+    static long elapsedNanos(long startedAt, long nativeStartNanos) {
+        if (startedAt > 0) {
+            long elapsedMillis = System.currentTimeMillis() - startedAt;
+            if (elapsedMillis >= 0) {
+                return elapsedMillis * 1000000L;
+            }
+        }
+        return System.nanoTime() - nativeStartNanos;
+    }
+
+    synchronized void record(long byteCount, long elapsedNanos) {
+        bytes += byteCount;
+        nanos += elapsedNanos;
+        if (bytes - lastReportBytes >= REPORT_INTERVAL_BYTES) {
+            lastReportBytes = bytes;
+            LOG.d(LOG_TAG, toString());
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        double megabytes = bytes / (1024.0 * 1024.0);
+        double seconds = nanos / 1e9;
+        return String.format(Locale.US, "%s writes: %.1f MB at %.1f MB/s", name, megabytes,
+                seconds > 0 ? megabytes / seconds : 0);
+    }
+}
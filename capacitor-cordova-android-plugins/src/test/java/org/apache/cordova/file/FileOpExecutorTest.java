@@ -0,0 +1,129 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+ */
+package org.apache.cordova.file;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FileOpExecutorTest {
+
+    private FileOpExecutor executor;
+    private List<String> finished;
+    private CountDownLatch release;
+
+    @Before
+    public void setUp() {
+        executor = new FileOpExecutor(4);
+        finished = Collections.synchronizedList(new ArrayList<String>());
+        release = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void runsOperationsOnTheSameFileInOrder() throws Exception {
+        executor.execute(keys("/a"), "write", blocked("first"));
+        executor.execute(keys("/a"), "write", record("second"));
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(keys("/a"), "write", record("third", done));
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("first", "second", "third"), finished);
+    }
+
+    @Test
+    public void runsOperationsOnOtherFilesInParallel() throws Exception {
+        executor.execute(keys("/a"), "write", blocked("a"));
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(keys("/b"), "write", record("b", done));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("b"), finished);
+    }
+
+    @Test
+    public void waitsForEveryFileOfAnOperation() throws Exception {
+        executor.execute(keys("/a"), "write", blocked("a"));
+        // Waits for /a, and holds /b from then on
+        executor.execute(keys("/a", "/b"), "moveTo", record("move"));
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(keys("/b"), "write", record("b", done));
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("a", "move", "b"), finished);
+    }
+
+    @Test
+    public void runsOperationsOnTheSameFileTwice() throws Exception {
+        CountDownLatch done = new CountDownLatch(2);
+        executor.execute(keys("/a", "/a"), "copyTo", record("copy", done));
+        executor.execute(null, "requestAllPaths", record("unkeyed", done));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    private static String[] keys(String... keys) {
+        return keys;
+    }
+
+    private Runnable blocked(final String name) {
+        return new Runnable() {
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                finished.add(name);
+            }
+        };
+    }
+
+    private Runnable record(String name) {
+        return record(name, null);
+    }
+
+    private Runnable record(final String name, final CountDownLatch done) {
+        return new Runnable() {
+            public void run() {
+                finished.add(name);
+                if (done != null) {
+                    done.countDown();
+                }
+            }
+        };
+    }
+}
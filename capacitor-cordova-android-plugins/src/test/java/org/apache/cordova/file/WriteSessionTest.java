@@ -0,0 +1,94 @@
+/*
+       Licensed to the Apache Software Foundation (ASF) under one
+       or more contributor license agreements.  See the NOTICE file
+       distributed with this work for additional information
+       regarding copyright ownership.  The ASF licenses this file
+       to you under the Apache License, Version 2.0 (the
+       "License"); you may not use this file except in compliance
+       with the License.  You may obtain a copy of the License at
+
+         http://www.apache.org/licenses/LICENSE-2.0
+
+       Unless required by applicable law or agreed to in writing,
+       software distributed under the License is distributed on an
+       "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+       KIND, either express or implied.  See the License for the
+       specific language governing permissions and limitations
+       under the License.
+ */
+package org.apache.cordova.file;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class WriteSessionTest {
+
+    private File file;
+    private WriteSession session;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("writesession", ".bin");
+        session = new WriteSession(file.getAbsolutePath());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        session.close();
+        file.delete();
+    }
+
+    @Test
+    public void appendsSequentialWrites() throws Exception {
+        assertEquals(3, session.write("abc".getBytes(), 0));
+        assertEquals(3, session.write("def".getBytes(), 3));
+
+        assertEquals(6, session.size());
+        assertArrayEquals("abcdef".getBytes(), read(file));
+    }
+
+    @Test
+    public void truncatesAfterWritesInsideTheFile() throws Exception {
+        session.write("abcdef".getBytes(), 0);
+        session.write("X".getBytes(), 2);
+
+        assertArrayEquals("abX".getBytes(), read(file));
+    }
+
+    @Test
+    public void appendsWritesPastTheEnd() throws Exception {
+        session.write("abc".getBytes(), 0);
+        session.write("de".getBytes(), 100);
+
+        assertArrayEquals("abcde".getBytes(), read(file));
+    }
+
+    @Test
+    public void writesText() throws Exception {
+        assertEquals(5, session.write("hello", 0, false));
+        session.write("p!", 3, false);
+
+        assertArrayEquals("help!".getBytes(), read(file));
+    }
+
+    private static byte[] read(File file) throws Exception {
+        byte[] data = new byte[(int) file.length()];
+        FileInputStream in = new FileInputStream(file);
+        try {
+            int read = 0;
+            while (read < data.length) {
+                read += in.read(data, read, data.length - read);
+            }
+        } finally {
+            in.close();
+        }
+        return data;
+    }
+}